@@ -0,0 +1,130 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes on the wire and latency of {@code /api/customers} pages with and without gzip. For every page
+ * size, {@code clients} concurrent callers fetch random pages among the first {@code pages}, once
+ * sending {@code Accept-Encoding: identity} and once {@code gzip}. The HTTP client does not decode
+ * responses, so the recorded body length is what crossed the network.
+ *
+ * <pre>
+ * ./gradlew :loadtest:compressionBench --args="--sizes=20,100,1000 --requests=2000 --clients=16"
+ * </pre>
+ */
+public final class CompressionBench {
+
+    private CompressionBench() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        String base = options.get("base", "http://localhost:8080");
+        int requests = options.getInt("requests", 2000);
+        int warmup = options.getInt("warmup", 200);
+        int clients = options.getInt("clients", 16);
+        int pages = options.getInt("pages", 50);
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("%d requests per run after %d warm-up, %d clients, %d distinct pages%n",
+                requests, warmup, clients, pages);
+        for (String size : options.get("sizes", "20,100,1000").split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            Result identity = run(http, base, rows, pages, "identity", warmup, requests, clients);
+            Result gzip = run(http, base, rows, pages, "gzip", warmup, requests, clients);
+            report(rows + " rows identity", identity, identity);
+            report(rows + " rows gzip", gzip, identity);
+        }
+    }
+
+    private static Result run(HttpClient http, String base, int rows, int pages, String encoding,
+                              int warmup, int requests, int clients) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        LongAdder bytes = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(warmup + requests);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                callers.submit(() -> {
+                    while (true) {
+                        int left = remaining.decrementAndGet();
+                        if (left < 0) {
+                            return;
+                        }
+                        URI uri = URI.create(base + "/api/customers?size=" + rows
+                                + "&page=" + ThreadLocalRandom.current().nextInt(pages));
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Accept", "application/json")
+                                .header("Accept-Encoding", encoding)
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            long elapsed = System.nanoTime() - start;
+                            if (left >= requests) {
+                                continue;
+                            }
+                            if (response.statusCode() == 200) {
+                                recorder.recordValue(elapsed);
+                                bytes.add(response.body().length);
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            if (left < requests) {
+                                errors.increment();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return new Result(recorder.getIntervalHistogram(), bytes.sum(), errors.sum());
+    }
+
+    private static void report(String label, Result result, Result baseline) {
+        System.out.printf("%-20s %7d ok %5d failed %10.0f B/resp %6.1f%%   p50 %7.2f  p90 %7.2f  p99 %7.2f  max %7.2f ms%n",
+                label,
+                result.latencies().getTotalCount(),
+                result.errors(),
+                result.bytesPerResponse(),
+                100.0 * result.bytesPerResponse() / baseline.bytesPerResponse(),
+                millis(result.latencies().getValueAtPercentile(50)),
+                millis(result.latencies().getValueAtPercentile(90)),
+                millis(result.latencies().getValueAtPercentile(99)),
+                millis(result.latencies().getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Result(Histogram latencies, long bytes, long errors) {
+
+        double bytesPerResponse() {
+            return latencies.getTotalCount() == 0 ? 0 : (double) bytes / latencies.getTotalCount();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.loadtest.QueryMix.Request;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load driver: {@code clients} concurrent callers each send a request, wait for the
+ * response and immediately send the next one. Latencies recorded after the warm-up are reported per
+ * request kind as throughput and percentiles.
+ *
+ * <p>By default the requests follow {@link QueryMix} against data created by {@link Seed}; pass
+ * {@code --customers}/{@code --lots} matching the seeded volumes. {@code --url} hammers a single URL
+ * instead.
+ *
+ * <pre>
+ * ./gradlew :loadtest:run --args="--clients=200 --duration=60s --customers=10000 --lots=200000"
+ * ./gradlew :loadtest:run --args="--url=http://localhost:8080/api/lots?size=20 --clients=1000"
+ * </pre>
+ *
+ * To compare request execution modes, run it once against the application started with
+ * {@code spring.threads.virtual.enabled=false} and once with {@code true}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int clients = options.getInt("clients", 1000);
+        Duration warmup = options.getDuration("warmup", "10s");
+        Duration duration = options.getDuration("duration", "60s");
+
+        Supplier<Request> requests;
+        if (options.has("url")) {
+            Request request = new Request("url", URI.create(options.get("url", null)));
+            requests = () -> request;
+        } else {
+            QueryMix mix = new QueryMix(options.get("base", "http://localhost:8080"),
+                    options.getInt("customers", 10_000), options.getInt("lots", 200_000));
+            requests = mix::next;
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        System.out.printf("%d clients, warm-up %ss, measuring %ss%n",
+                clients, warmup.toSeconds(), duration.toSeconds());
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                callers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Request next = requests.get();
+                        HttpRequest request = HttpRequest.newBuilder(next.uri())
+                                .header("Accept", "application/json")
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            // lookups of keys that were never seeded are expected misses, not failures
+                            ok = response.statusCode() < 400 || response.statusCode() == 404;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (start >= measureFrom) {
+                            if (ok) {
+                                recorders.computeIfAbsent(next.label(), label -> new Recorder(3))
+                                        .recordValue(System.nanoTime() - start);
+                            } else {
+                                errors.computeIfAbsent(next.label(), label -> new LongAdder()).increment();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        Histogram total = new Histogram(3);
+        Map<String, Histogram> byLabel = new TreeMap<>();
+        recorders.forEach((label, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            byLabel.put(label, histogram);
+            total.add(histogram);
+        });
+        byLabel.forEach((label, histogram) -> report(label, histogram,
+                errors.getOrDefault(label, new LongAdder()).sum(), duration));
+        report("total", total, errors.values().stream().mapToLong(LongAdder::sum).sum(), duration);
+    }
+
+    private static void report(String label, Histogram latencies, long errors, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%-18s %8d ok %6d failed %9.1f req/s   p50 %7.2f  p90 %7.2f  p99 %7.2f  p99.9 %7.2f  max %7.2f ms%n",
+                label,
+                latencies.getTotalCount(),
+                errors,
+                latencies.getTotalCount() / seconds,
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
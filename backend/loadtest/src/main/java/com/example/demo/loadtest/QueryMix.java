@@ -0,0 +1,128 @@
+package com.example.demo.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Requests shaped like the ones the frontend's lotservice and customerservice send: a page of 10 (the
+ * table default) or a larger step, mostly the first few pages, an optional single-column sort and the
+ * filters offered by the filter modals. Lookups by key stand in for opening the edit dialog.
+ */
+final class QueryMix {
+
+    private static final String[] LOT_SORTS = {"lotName", "customerCode", "price", "currencyCode", "dateDelivery"};
+    private static final String[] CUSTOMER_SORTS = {"customerCode", "customerName", "customerInn", "customerKpp",
+            "isOrganization", "isPerson", "customerLegalAddress", "customerPostalAddress", "customerEmail",
+            "customerCodeMain"};
+    private static final String[] CURRENCIES = {"RUB", "USD", "EUR"};
+    private static final String[] NDS_RATES = {"Без НДС", "18%", "20%"};
+    private static final String[] CITIES = {"Moscow", "Kazan", "Tula", "Samara"};
+    private static final int[] STEPS = {10, 10, 10, 20, 50};
+
+    record Request(String label, URI uri) {
+    }
+
+    private final String base;
+    private final int customers;
+    private final int lots;
+
+    QueryMix(String base, int customers, int lots) {
+        this.base = base;
+        this.customers = customers;
+        this.lots = lots;
+    }
+
+    Request next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 45) {
+            return new Request("lots list", uri("/api/lots", lotListQuery(random)));
+        } else if (roll < 80) {
+            return new Request("customers list", uri("/api/customers", customerListQuery(random)));
+        } else if (roll < 90) {
+            return new Request("lot by name", uri("/api/lots/" + encode(lotName(random)), null));
+        } else {
+            return new Request("customer by code", uri("/api/customers/" + customerCode(random), null));
+        }
+    }
+
+    private String lotListQuery(ThreadLocalRandom random) {
+        StringJoiner query = page(random, LOT_SORTS);
+        if (random.nextInt(100) < 15) {
+            // prefix of a seeded lot name, e.g. "Lot 00012"
+            query.add("lotName=" + encode(lotName(random).substring(0, 4 + random.nextInt(3, 8))));
+        }
+        if (random.nextInt(100) < 10) {
+            query.add("customerCode=" + customerCode(random));
+        }
+        if (random.nextInt(100) < 10) {
+            int min = random.nextInt(50_000);
+            query.add("minPrice=" + min).add("maxPrice=" + (min + random.nextInt(1_000, 50_000)));
+        }
+        if (random.nextInt(100) < 20) {
+            query.add("currencyCode=" + CURRENCIES[random.nextInt(CURRENCIES.length)]);
+        }
+        if (random.nextInt(100) < 10) {
+            query.add("ndsRate=" + encode(NDS_RATES[random.nextInt(NDS_RATES.length)]));
+        }
+        return query.toString();
+    }
+
+    private String customerListQuery(ThreadLocalRandom random) {
+        StringJoiner query = page(random, CUSTOMER_SORTS);
+        if (random.nextInt(100) < 15) {
+            query.add("name=" + encode("Customer " + random.nextInt(1, Math.max(2, customers / 100))));
+        }
+        if (random.nextInt(100) < 10) {
+            query.add("customerCode=" + customerCode(random).substring(0, 6));
+        }
+        if (random.nextInt(100) < 5) {
+            query.add("inn=" + (7700000000L + random.nextInt(1, customers + 1)));
+        }
+        if (random.nextInt(100) < 15) {
+            query.add("isOrganization=" + random.nextBoolean());
+        }
+        if (random.nextInt(100) < 5) {
+            query.add("isPerson=true");
+        }
+        if (random.nextInt(100) < 5) {
+            query.add("customerLegalAddress=" + CITIES[random.nextInt(CITIES.length)]);
+        }
+        if (random.nextInt(100) < 5) {
+            query.add("customerEmail=" + encode("customer" + random.nextInt(1, 100)));
+        }
+        return query.toString();
+    }
+
+    private static StringJoiner page(ThreadLocalRandom random, String[] sorts) {
+        StringJoiner query = new StringJoiner("&");
+        int step = STEPS[random.nextInt(STEPS.length)];
+        // users mostly stay on the first pages; a few jump far ahead
+        int page = random.nextInt(100) < 90 ? random.nextInt(5) : random.nextInt(5, 500);
+        query.add("page=" + page).add("size=" + step);
+        if (random.nextBoolean()) {
+            String direction = random.nextBoolean() ? "asc" : "desc";
+            query.add("sort=" + sorts[random.nextInt(sorts.length)] + "," + direction);
+        }
+        return query;
+    }
+
+    private String lotName(ThreadLocalRandom random) {
+        return String.format("Lot %09d", random.nextInt(1, lots + 1));
+    }
+
+    private String customerCode(ThreadLocalRandom random) {
+        return String.format("LT%08d", random.nextInt(1, customers + 1));
+    }
+
+    private URI uri(String path, String query) {
+        return URI.create(base + path + (query == null || query.isEmpty() ? "" : "?" + query));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Fills purchase.customer and purchase.lot with generated rows for load tests. The schema is created from
+ * init.sql when it does not exist yet. Generated customers are coded {@code LT00000001} upwards and lots
+ * {@code Lot 000000001} upwards; {@link QueryMix} relies on that to build requests that hit real rows.
+ *
+ * <pre>
+ * ./gradlew :loadtest:seed --args="--customers=10000 --lots=500000 --reset=true"
+ * </pre>
+ */
+public final class Seed {
+
+    private static final String CUSTOMERS = "INSERT INTO purchase.customer (customer_code, customer_name, "
+            + "customer_inn, customer_kpp, customer_legal_address, customer_postal_address, customer_email, "
+            + "customer_code_main, is_organization, is_person) "
+            + "SELECT 'LT' || lpad(i::text, 8, '0'), "
+            + "  'Customer ' || i || CASE WHEN i % 3 = 0 THEN '' ELSE ' LLC' END, "
+            + "  (7700000000 + i)::text, "
+            + "  CASE WHEN i % 3 = 0 THEN NULL ELSE (770100000 + i % 100000)::text END, "
+            + "  i || ' ' || (ARRAY['Tverskaya', 'Arbat', 'Nevsky', 'Lenina', 'Mira'])[1 + i % 5] || ' St, ' "
+            + "    || (ARRAY['Moscow', 'Kazan', 'Tula', 'Samara'])[1 + i % 4], "
+            + "  'PO Box ' || i || ', ' || (ARRAY['Moscow', 'Kazan', 'Tula', 'Samara'])[1 + i % 4], "
+            + "  'customer' || i || '@example.com', "
+            + "  CASE WHEN i < 10 OR i % 10 = 0 THEN NULL ELSE 'LT' || lpad((i - i % 10)::text, 8, '0') END, "
+            + "  i % 3 <> 0, i % 3 = 0 "
+            + "FROM generate_series(1, ?) i "
+            + "ON CONFLICT (customer_code) DO NOTHING";
+
+    private static final String LOTS = "INSERT INTO purchase.lot (lot_name, customer_code, price, currency_code, "
+            + "nds_rate, place_delivery, date_delivery) "
+            + "SELECT 'Lot ' || lpad(i::text, 9, '0'), "
+            + "  'LT' || lpad((1 + (i::bigint * 7919) % ?)::text, 8, '0'), "
+            + "  round((100 + random() * 100000)::numeric, 2), "
+            + "  (ARRAY['RUB', 'RUB', 'USD', 'EUR'])[1 + i % 4], "
+            + "  (ARRAY['Без НДС', '18%', '20%', '20%'])[1 + (i / 4) % 4], "
+            + "  'Warehouse ' || (i % 40) || ', ' || (ARRAY['Moscow', 'Kazan', 'Tula', 'Samara'])[1 + i % 4], "
+            + "  timestamp '2024-01-01 10:00' + (i % 20000) * interval '1 hour' "
+            + "FROM generate_series(?, ?) i "
+            + "ON CONFLICT (lot_name) DO NOTHING";
+
+    private static final int LOT_BATCH = 100_000;
+
+    private Seed() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int customers = options.getInt("customers", 10_000);
+        int lots = options.getInt("lots", 200_000);
+
+        try (Connection connection = DriverManager.getConnection(
+                options.get("db", "jdbc:postgresql://localhost:5432/postgres"),
+                options.get("user", "perelyginstanislas"),
+                options.get("password", ""))) {
+            if (!schemaExists(connection)) {
+                Path init = Path.of(options.get("init", "../../init.sql"));
+                System.out.println("Creating schema from " + init.toAbsolutePath().normalize());
+                execute(connection, Files.readString(init));
+            }
+            if (Boolean.parseBoolean(options.get("reset", "false"))) {
+                execute(connection, "TRUNCATE purchase.lot, purchase.customer");
+            }
+
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(CUSTOMERS)) {
+                insert.setInt(1, customers);
+                System.out.printf("customers: %d inserted%n", insert.executeUpdate());
+            }
+            int inserted = 0;
+            try (PreparedStatement insert = connection.prepareStatement(LOTS)) {
+                for (int from = 1; from <= lots; from += LOT_BATCH) {
+                    insert.setInt(1, customers);
+                    insert.setInt(2, from);
+                    insert.setInt(3, Math.min(lots, from + LOT_BATCH - 1));
+                    inserted += insert.executeUpdate();
+                    System.out.printf("lots: %d / %d%n", Math.min(lots, from + LOT_BATCH - 1), lots);
+                }
+            }
+            System.out.printf("lots: %d inserted%n", inserted);
+            execute(connection, "ANALYZE purchase.customer");
+            execute(connection, "ANALYZE purchase.lot");
+            System.out.printf("done in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static boolean schemaExists(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT to_regclass('purchase.lot') IS NOT NULL")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.bench;
+
+import jooqdata.Tables;
+import jooqdata.tables.pojos.Customer;
+import jooqdata.tables.pojos.Lot;
+import jooqdata.tables.records.CustomerRecord;
+import jooqdata.tables.records.LotRecord;
+import org.jooq.DSLContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic rows shaped like the seed data, so runs are comparable.
+ */
+public final class Fixtures {
+
+    private static final DSLContext DSL_CONTEXT = DSL.using(SQLDialect.POSTGRES);
+    private static final String[] CURRENCIES = {"RUB", "USD", "EUR"};
+    private static final String[] NDS_RATES = {"Без НДС", "18%", "20%"};
+
+    private Fixtures() {
+    }
+
+    public static List<Lot> lots(int count) {
+        List<Lot> lots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lots.add(lot(i));
+        }
+        return lots;
+    }
+
+    public static Lot lot(int i) {
+        return new Lot(
+                "Lot " + i,
+                "CUST" + (i % 500),
+                BigDecimal.valueOf(1000 + i * 37L, 2),
+                CURRENCIES[i % CURRENCIES.length],
+                NDS_RATES[i % NDS_RATES.length],
+                "Warehouse " + (i % 40) + ", Moscow",
+                LocalDateTime.of(2024, 1, 1, 10, 0).plusHours(i),
+                (long) i % 5);
+    }
+
+    public static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(customer(i));
+        }
+        return customers;
+    }
+
+    public static Customer customer(int i) {
+        return new Customer(
+                "CUST" + i,
+                "Customer " + i + " LLC",
+                String.format("%010d", 7700000000L + i),
+                String.format("%09d", 770100000 + i),
+                i + " Tverskaya St, Moscow",
+                "PO Box " + i + ", Moscow",
+                "customer" + i + "@example.com",
+                i % 10 == 0 ? null : "CUST" + (i - i % 10),
+                i % 3 != 0,
+                i % 3 == 0,
+                (long) i % 5);
+    }
+
+    public static Result<LotRecord> lotRecords(int count) {
+        Result<LotRecord> result = DSL_CONTEXT.newResult(Tables.LOT);
+        for (int i = 0; i < count; i++) {
+            result.add(DSL_CONTEXT.newRecord(Tables.LOT, lot(i)));
+        }
+        return result;
+    }
+
+    public static Result<CustomerRecord> customerRecords(int count) {
+        Result<CustomerRecord> result = DSL_CONTEXT.newResult(Tables.CUSTOMER);
+        for (int i = 0; i < count; i++) {
+            result.add(DSL_CONTEXT.newRecord(Tables.CUSTOMER, customer(i)));
+        }
+        return result;
+    }
+}
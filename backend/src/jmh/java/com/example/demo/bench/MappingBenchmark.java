@@ -0,0 +1,76 @@
+package com.example.demo.bench;
+
+import jooqdata.tables.pojos.Customer;
+import jooqdata.tables.pojos.Lot;
+import jooqdata.tables.records.CustomerRecord;
+import jooqdata.tables.records.LotRecord;
+import org.jooq.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record-to-POJO mapping on already fetched rows: jOOQ's reflective {@code into(Class)} against calling the
+ * generated constructors directly, plus the bare constructor cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"20", "1000"})
+    private int rows;
+
+    private Result<LotRecord> lots;
+    private Result<CustomerRecord> customers;
+    private Lot lot;
+
+    @Setup
+    public void setUp() {
+        lots = Fixtures.lotRecords(rows);
+        customers = Fixtures.customerRecords(rows);
+        lot = Fixtures.lot(1);
+    }
+
+    @Benchmark
+    public List<Lot> lotsIntoClass() {
+        return lots.into(Lot.class);
+    }
+
+    @Benchmark
+    public List<Lot> lotsConstructor() {
+        return lots.map(r -> new Lot(r.getLotName(), r.getCustomerCode(), r.getPrice(), r.getCurrencyCode(),
+                r.getNdsRate(), r.getPlaceDelivery(), r.getDateDelivery(), r.getVersion()));
+    }
+
+    @Benchmark
+    public List<Customer> customersIntoClass() {
+        return customers.into(Customer.class);
+    }
+
+    @Benchmark
+    public List<Customer> customersConstructor() {
+        return customers.map(r -> new Customer(r.getCustomerCode(), r.getCustomerName(), r.getCustomerInn(),
+                r.getCustomerKpp(), r.getCustomerLegalAddress(), r.getCustomerPostalAddress(),
+                r.getCustomerEmail(), r.getCustomerCodeMain(), r.getIsOrganization(), r.getIsPerson(),
+                r.getVersion()));
+    }
+
+    @Benchmark
+    public Lot lotAllArgsConstructor() {
+        return Fixtures.lot(rows);
+    }
+
+    @Benchmark
+    public Lot lotCopyConstructor() {
+        return new Lot(lot);
+    }
+}
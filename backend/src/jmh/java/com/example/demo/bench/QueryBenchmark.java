@@ -0,0 +1,73 @@
+package com.example.demo.bench;
+
+import jooqdata.Tables;
+import jooqdata.tables.pojos.Lot;
+import jooqdata.tables.records.LotRecord;
+import org.jooq.DSLContext;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.SelectLimitPercentStep;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A first listing page fetched from the local Postgres ({@code jmh.db.url}) over one connection, mapped three
+ * ways. Needs lot rows to be present; the numbers include the round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    private Connection connection;
+    private DSLContext dsl;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jmh.db.url", "jdbc:postgresql://localhost:5432/postgres"),
+                System.getProperty("jmh.db.user", "perelyginstanislas"),
+                System.getProperty("jmh.db.password", ""));
+        dsl = DSL.using(connection, SQLDialect.POSTGRES);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Result<LotRecord> records() {
+        return page().fetch();
+    }
+
+    @Benchmark
+    public List<Lot> fetchIntoClass() {
+        return page().fetchInto(Lot.class);
+    }
+
+    @Benchmark
+    public List<Lot> fetchConstructor() {
+        return page().fetch(r -> new Lot(r.getLotName(), r.getCustomerCode(), r.getPrice(), r.getCurrencyCode(),
+                r.getNdsRate(), r.getPlaceDelivery(), r.getDateDelivery(), r.getVersion()));
+    }
+
+    private SelectLimitPercentStep<LotRecord> page() {
+        return dsl.selectFrom(Tables.LOT)
+                .orderBy(Tables.LOT.LOT_NAME)
+                .limit(20);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.bench;
+
+import com.example.demo.repository.KeysetPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jooqdata.tables.pojos.Customer;
+import jooqdata.tables.pojos.Lot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as the listing endpoints produce them: offset pages go out as {@link PagedModel}
+ * (VIA_DTO), slices and keyset pages as they are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    // same defaults Boot applies to the application's ObjectMapper
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private PagedModel<Lot> lotPage;
+    private PagedModel<Customer> customerPage;
+    private SliceImpl<Lot> lotSlice;
+    private KeysetPage<Lot> lotKeysetPage;
+
+    @Setup
+    public void setUp() {
+        List<Lot> lots = Fixtures.lots(size);
+        List<Customer> customers = Fixtures.customers(size);
+        PageRequest pageable = PageRequest.of(2, size);
+        lotPage = new PagedModel<>(new PageImpl<>(lots, pageable, 100_000));
+        customerPage = new PagedModel<>(new PageImpl<>(customers, pageable, 100_000));
+        lotSlice = new SliceImpl<>(lots, pageable, true);
+        lotKeysetPage = new KeysetPage<>(lots, size, "WyJMb3QgMjAiXQ", "WyJMb3QgMCJd");
+    }
+
+    @Benchmark
+    public byte[] lotPage() throws Exception {
+        return mapper.writeValueAsBytes(lotPage);
+    }
+
+    @Benchmark
+    public byte[] customerPage() throws Exception {
+        return mapper.writeValueAsBytes(customerPage);
+    }
+
+    @Benchmark
+    public byte[] lotSlice() throws Exception {
+        return mapper.writeValueAsBytes(lotSlice);
+    }
+
+    @Benchmark
+    public byte[] lotKeysetPage() throws Exception {
+        return mapper.writeValueAsBytes(lotKeysetPage);
+    }
+}
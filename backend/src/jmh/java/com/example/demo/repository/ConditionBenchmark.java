@@ -0,0 +1,64 @@
+package com.example.demo.repository;
+
+import com.example.demo.bench.Fixtures;
+import jooqdata.Tables;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.conf.ParamType;
+import org.jooq.impl.DSL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning request filters into a listing query, before anything reaches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConditionBenchmark {
+
+    private final DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+    private final Sort sort = Sort.by("price").descending().and(Sort.by("lotName"));
+
+    @Benchmark
+    public Condition lotConditionNoFilters() {
+        return LotRepository.condition(null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public Condition lotConditionAllFilters() {
+        return LotRepository.condition("pipe", "CUST42", 100.0, 5000.0, "RUB", "20%", "Warehouse 3, Moscow");
+    }
+
+    @Benchmark
+    public Condition customerConditionAllFilters() {
+        return CustomerRepository.condition("CUST", "llc", "7700000042", true, false, "770100042",
+                "tverskaya", "po box", "example.com", "CUST40");
+    }
+
+    @Benchmark
+    public String renderLotPageQuery() {
+        return dsl.selectFrom(Tables.LOT)
+                .where(LotRepository.condition("pipe", "CUST42", 100.0, 5000.0, "RUB", "20%", null))
+                .orderBy(LotRepository.orderFields(sort))
+                .limit(21)
+                .offset(40)
+                .getSQL(ParamType.INDEXED);
+    }
+
+    @Benchmark
+    public String renderLotSeekQuery() {
+        Keyset keyset = Keyset.of(sort, LotRepository.SORT_FIELDS, Tables.LOT.LOT_NAME);
+        String cursor = keyset.cursor(dsl.newRecord(Tables.LOT, Fixtures.lot(42)));
+        return keyset.query(dsl, Tables.LOT, LotRepository.condition(null, null, null, null, "RUB", null, null),
+                cursor, null, 20).getSQL(ParamType.INDEXED);
+    }
+}
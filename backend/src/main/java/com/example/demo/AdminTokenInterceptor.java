@@ -0,0 +1,45 @@
+package com.example.demo;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Lets requests to the admin endpoints through only with {@code demo.admin.token} in the {@value #HEADER}
+ * header. While no token is configured the admin endpoints are off.
+ */
+@Component
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    static final String HEADER = "X-Admin-Token";
+
+    @Value("${demo.admin.token:}")
+    private String token;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        if (token.isBlank()) {
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return false;
+        }
+        String presented = request.getHeader(HEADER);
+        if (presented == null || !MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return false;
+        }
+        return true;
+    }
+}
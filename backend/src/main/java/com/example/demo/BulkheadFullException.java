@@ -0,0 +1,12 @@
+package com.example.demo;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(Bulkheads.Lane lane) {
+        super("Too many concurrent " + lane.name().toLowerCase() + " requests");
+    }
+}
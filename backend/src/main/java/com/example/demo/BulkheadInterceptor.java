@@ -0,0 +1,54 @@
+package com.example.demo;
+
+import com.example.demo.Bulkheads.Lane;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Holds a READ permit for safe methods and a WRITE permit for everything else while the handler runs.
+ * Exports take their EXPORT permit in the repository instead, around the streaming cursor.
+ */
+class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String LANE = BulkheadInterceptor.class.getName() + ".lane";
+
+    private final Bulkheads bulkheads;
+
+    BulkheadInterceptor(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(LANE) != null) {
+            return true;
+        }
+        String method = request.getMethod();
+        Lane lane = method.equals("GET") || method.equals("HEAD") ? Lane.READ : Lane.WRITE;
+        bulkheads.acquire(lane);
+        request.setAttribute(LANE, lane);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        Lane lane = (Lane) request.getAttribute(LANE);
+        if (lane != null) {
+            request.removeAttribute(LANE);
+            bulkheads.release(lane);
+        }
+    }
+}
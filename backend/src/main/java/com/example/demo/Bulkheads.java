@@ -0,0 +1,77 @@
+package com.example.demo;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the shared connection pool into per-workload budgets. Each lane may hold at most its number of
+ * connections at once, so a burst of exports or bulk writes queues in its own lane instead of draining the
+ * pool that listing and CRUD requests wait on. Keep the sum of the permits at or below the pool size.
+ */
+@Component
+public class Bulkheads {
+
+    public enum Lane {
+        READ, WRITE, EXPORT
+    }
+
+    @Value("${demo.bulkhead.read:12}")
+    private int readPermits;
+
+    @Value("${demo.bulkhead.write:5}")
+    private int writePermits;
+
+    @Value("${demo.bulkhead.export:2}")
+    private int exportPermits;
+
+    @Value("${demo.bulkhead.max-wait:2s}")
+    private Duration maxWait;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<Lane, Semaphore> lanes = new EnumMap<>(Lane.class);
+
+    @PostConstruct
+    void init() {
+        lanes.put(Lane.READ, new Semaphore(readPermits, true));
+        lanes.put(Lane.WRITE, new Semaphore(writePermits, true));
+        lanes.put(Lane.EXPORT, new Semaphore(exportPermits, true));
+        lanes.forEach((lane, semaphore) -> Gauge.builder("demo.bulkhead.available", semaphore, Semaphore::availablePermits)
+                .tag("lane", lane.name().toLowerCase())
+                .register(registry));
+    }
+
+    /**
+     * Takes a permit, waiting at most {@code demo.bulkhead.max-wait}.
+     *
+     * @throws BulkheadFullException if the lane stays saturated for that long
+     */
+    public void acquire(Lane lane) {
+        boolean acquired;
+        try {
+            acquired = lanes.get(lane).tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            registry.counter("demo.bulkhead.rejected", "lane", lane.name().toLowerCase()).increment();
+            throw new BulkheadFullException(lane);
+        }
+    }
+
+    public void release(Lane lane) {
+        lanes.get(lane).release();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo;
+
+import com.example.demo.repository.ChangeListener;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connects every Hikari pool with {@link ChangeListener#ORIGIN} as {@code application_name}, which the
+ * change triggers copy into their notifications so the listener can tell this node's writes apart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "demo.notify.enabled", havingValue = "true")
+public class ChangeNotifyConfig {
+
+    @Bean
+    public static BeanPostProcessor applicationNamePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    hikari.addDataSourceProperty("ApplicationName", ChangeListener.ORIGIN);
+                }
+                return bean;
+            }
+        };
+    }
+}
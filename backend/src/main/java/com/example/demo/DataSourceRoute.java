@@ -0,0 +1,32 @@
+package com.example.demo;
+
+/**
+ * Which database the current thread's JDBC work goes to. Unset means {@link #PRIMARY}, so background
+ * work and anything outside a routed request always sees its own writes.
+ */
+public enum DataSourceRoute {
+    PRIMARY, REPLICA;
+
+    private static final ThreadLocal<DataSourceRoute> CURRENT = new ThreadLocal<>();
+
+    public static DataSourceRoute current() {
+        DataSourceRoute route = CURRENT.get();
+        return route == null ? PRIMARY : route;
+    }
+
+    /**
+     * Whether the current thread reads from the replica, which may not have the latest writes yet. What it
+     * reads must not be cached for readers that rely on seeing their own writes.
+     */
+    public static boolean lagging() {
+        return current() == REPLICA;
+    }
+
+    public static void set(DataSourceRoute route) {
+        CURRENT.set(route);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
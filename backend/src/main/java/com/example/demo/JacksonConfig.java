@@ -0,0 +1,27 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Shares Jackson's read and write buffers between threads when requests run on virtual threads
+ * ({@code spring.threads.virtual.enabled=true}). The default pool keeps them per thread, which gives no
+ * reuse once every request has a thread of its own; on the platform thread pool it is the better fit and
+ * stays in place.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer pooledBuffers() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                .build());
+    }
+}
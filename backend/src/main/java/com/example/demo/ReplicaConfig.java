@@ -0,0 +1,75 @@
+package com.example.demo;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary/replica split, enabled with {@code demo.replica.enabled}. Both pools are plain Hikari beans (so
+ * they keep their own metrics); the {@code @Primary} routing DataSource in front of them is what jOOQ and
+ * JPA see. {@code demo.replica.url} may list several hosts for pgjdbc to balance across.
+ */
+@Configuration
+@ConditionalOnProperty(name = "demo.replica.enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("demo.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${demo.replica.url}") String url,
+                                              @Value("${demo.replica.username:}") String username,
+                                              @Value("${demo.replica.password:}") String password) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        RoutingDataSource routing = new RoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                DataSourceRoute.PRIMARY, primaryDataSource,
+                DataSourceRoute.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+
+    /**
+     * Carries the request's route over to the executor that runs async work such as streamed exports.
+     */
+    @Bean
+    public TaskDecorator dataSourceRouteTaskDecorator() {
+        return task -> {
+            DataSourceRoute route = DataSourceRoute.current();
+            return () -> {
+                DataSourceRoute.set(route);
+                try {
+                    task.run();
+                } finally {
+                    DataSourceRoute.clear();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Sends GET/HEAD requests to the replica and everything else to the primary. A write also sets a short-lived
+ * cookie; while the client presents it, its reads stay on the primary so it sees its own changes despite
+ * replication lag.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.replica.enabled", havingValue = "true")
+public class ReplicaRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    static final String STICKY_COOKIE = "demo-read-primary";
+
+    @Value("${demo.replica.sticky-for:5s}")
+    private Duration stickyFor;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (method.equals("GET") || method.equals("HEAD")) {
+            DataSourceRoute.set(sticky(request) ? DataSourceRoute.PRIMARY : DataSourceRoute.REPLICA);
+        } else {
+            DataSourceRoute.set(DataSourceRoute.PRIMARY);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(STICKY_COOKIE, "1")
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(stickyFor)
+                    .build()
+                    .toString());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        DataSourceRoute.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        DataSourceRoute.clear();
+    }
+
+    private static boolean sticky(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(STICKY_COOKIE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
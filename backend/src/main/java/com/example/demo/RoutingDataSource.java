@@ -0,0 +1,15 @@
+package com.example.demo;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Picks the primary or the replica pool when a connection is requested. Inside a transaction the
+ * connection is bound on first use, so a transaction never moves between the two.
+ */
+class RoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return DataSourceRoute.current();
+    }
+}
@@ -1,17 +1,43 @@
 package com.example.demo;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+	@Autowired
+	private Bulkheads bulkheads;
+
+	@Autowired(required = false)
+	private ReplicaRoutingInterceptor replicaRouting;
+
+	@Autowired
+	private AdminTokenInterceptor adminToken;
+
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/api/**")
 				.allowedOrigins("http://localhost:5173") // Your React app's origin
 				.allowedMethods("GET", "POST", "PUT", "DELETE")
 				.allowedHeaders("*")
+				.exposedHeaders("ETag")
 				.allowCredentials(true);
 	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(adminToken).addPathPatterns("/api/admin/**");
+		if (replicaRouting != null) {
+			registry.addInterceptor(replicaRouting).addPathPatterns("/api/**");
+		}
+		// exports budget themselves; the reactive endpoints do not hold JDBC connections; index builds run in
+		// the background and must not hold a WRITE permit meanwhile
+		registry.addInterceptor(new BulkheadInterceptor(bulkheads))
+				.addPathPatterns("/api/**")
+				.excludePathPatterns("/api/*/export", "/api/reactive/**", "/api/admin/**");
+	}
 }
@@ -0,0 +1,33 @@
+package com.example.demo.controllers;
+
+import java.io.IOException;
+import java.io.Writer;
+
+final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Writes one RFC 4180 line; nulls become empty fields.
+     */
+    static void writeRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                String value = values[i].toString();
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+        }
+        writer.write("\r\n");
+    }
+}
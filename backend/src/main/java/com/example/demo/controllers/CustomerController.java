@@ -1,16 +1,36 @@
 package com.example.demo.controllers;
 
 
+import com.example.demo.repository.CountMode;
+import com.example.demo.repository.CustomerImporter;
 import com.example.demo.repository.CustomerRepository;
+import com.example.demo.repository.ImportResult;
+import com.example.demo.repository.JsonPage;
+import com.example.demo.repository.KeysetPage;
+import com.example.demo.repository.VersionConflictException;
+import com.example.demo.repository.Versioned;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jooqdata.tables.pojos.Customer;
+import jooqdata.tables.records.CustomerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @RestController
@@ -20,8 +40,32 @@ public class CustomerController {
     @Autowired
     private CustomerRepository repository;
 
+    // JSON property names of the Customer POJO, in CUSTOMER.fields() order
+    private static final SerializedString[] EXPORT_FIELDS = {
+            new SerializedString("customerCode"),
+            new SerializedString("customerName"),
+            new SerializedString("customerInn"),
+            new SerializedString("customerKpp"),
+            new SerializedString("customerLegalAddress"),
+            new SerializedString("customerPostalAddress"),
+            new SerializedString("customerEmail"),
+            new SerializedString("customerCodeMain"),
+            new SerializedString("isOrganization"),
+            new SerializedString("isPerson"),
+            new SerializedString("version")
+    };
+
+    @Autowired
+    private CustomerImporter importer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PageResponses pages;
+
     @GetMapping
-    public ResponseEntity<?> getCustomers(
+    public ResponseEntity<byte[]> getCustomers(
             @RequestParam(required = false) String customerCode,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String inn,
@@ -32,11 +76,14 @@ public class CustomerController {
             @RequestParam(required = false) String customerPostalAddress,
             @RequestParam(required = false) String customerEmail,
             @RequestParam(required = false) String customerCodeMain,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest request) {
 
-            Page<Customer> customers = repository.findAll(
+            JsonPage customers = repository.findAllJson(
                     customerCode,
                     pageable,
+                    count,
                     name,
                     inn,
                     isOrganization,
@@ -47,10 +94,174 @@ public class CustomerController {
                     customerEmail,
                     customerCodeMain
             );
-            return ResponseEntity.ok(customers);
+            return pages.respond(customers, request);
+
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<KeysetPage<Customer>> getCustomersAfter(
+            @RequestParam String after,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) Boolean isOrganization,
+            @RequestParam(required = false) Boolean isPerson,
+            @RequestParam(required = false) String customerKpp,
+            @RequestParam(required = false) String customerLegalAddress,
+            @RequestParam(required = false) String customerPostalAddress,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String customerCodeMain,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return seek(
+                after,
+                null,
+                customerCode,
+                pageable,
+                name,
+                inn,
+                isOrganization,
+                isPerson,
+                customerKpp,
+                customerLegalAddress,
+                customerPostalAddress,
+                customerEmail,
+                customerCodeMain
+        );
+    }
+
+    @GetMapping(params = {"before", "!after"})
+    public ResponseEntity<KeysetPage<Customer>> getCustomersBefore(
+            @RequestParam String before,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) Boolean isOrganization,
+            @RequestParam(required = false) Boolean isPerson,
+            @RequestParam(required = false) String customerKpp,
+            @RequestParam(required = false) String customerLegalAddress,
+            @RequestParam(required = false) String customerPostalAddress,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String customerCodeMain,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return seek(
+                null,
+                before,
+                customerCode,
+                pageable,
+                name,
+                inn,
+                isOrganization,
+                isPerson,
+                customerKpp,
+                customerLegalAddress,
+                customerPostalAddress,
+                customerEmail,
+                customerCodeMain
+        );
+    }
+
+    private ResponseEntity<KeysetPage<Customer>> seek(
+            String after,
+            String before,
+            String customerCode,
+            Pageable pageable,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
+        try {
+            return ResponseEntity.ok(repository.findAll(
+                    after,
+                    before,
+                    customerCode,
+                    pageable,
+                    name,
+                    inn,
+                    isOrganization,
+                    isPerson,
+                    customerKpp,
+                    customerLegalAddress,
+                    customerPostalAddress,
+                    customerEmail,
+                    customerCodeMain
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) Boolean isOrganization,
+            @RequestParam(required = false) Boolean isPerson,
+            @RequestParam(required = false) String customerKpp,
+            @RequestParam(required = false) String customerLegalAddress,
+            @RequestParam(required = false) String customerPostalAddress,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String customerCodeMain,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Sort sort) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        if (format.equals("ndjson")) {
+            contentType = MediaType.APPLICATION_NDJSON;
+            body = out -> {
+                try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                    json.setRootValueSeparator(null);
+                    repository.export(sort, customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                            customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain,
+                            record -> writeJson(json, record));
+                }
+            };
+        } else if (format.equals("csv")) {
+            contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            body = out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                Csv.writeRow(writer, (Object[]) EXPORT_FIELDS);
+                repository.export(sort, customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                        customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain,
+                        record -> Csv.writeRow(writer, record.intoArray()));
+                writer.flush();
+            };
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"customers." + format + "\"")
+                .body(body);
     }
 
+    /**
+     * Writes the record straight from its column values, the same shape Jackson gives a Customer POJO.
+     */
+    private static void writeJson(JsonGenerator json, CustomerRecord record) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < EXPORT_FIELDS.length; i++) {
+            json.writeFieldName(EXPORT_FIELDS[i]);
+            Object value = record.get(i);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Boolean) {
+                json.writeBoolean((Boolean) value);
+            } else if (value instanceof Long) {
+                json.writeNumber((Long) value);
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
 
     @PostMapping
     public ResponseEntity<Customer> create(@RequestBody Customer customer) {
@@ -62,14 +273,44 @@ public class CustomerController {
         }
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportResult> importCsv(InputStream body) {
+        try {
+            return ResponseEntity.ok(importer.importCsv(body));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importNdjson(InputStream body) {
+        try {
+            return ResponseEntity.ok(importer.importNdjson(body));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<Customer> getByCode(@PathVariable String code, WebRequest request) {
+        Optional<Versioned<Customer>> customer = repository.findVersioned(code);
+        if (customer.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(customer.get().etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(customer.get().etag())
+                .body(customer.get().value());
+    }
+
     @PutMapping("/{code}")
     public ResponseEntity<Customer> update(
             @PathVariable String code,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Customer customer
     ) {
-        if (!repository.findById(code).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
         Customer updatedCustomer = new Customer(
                 code,
                 customer.getCustomerName(),
@@ -80,17 +321,32 @@ public class CustomerController {
                 customer.getCustomerEmail(),
                 customer.getCustomerCodeMain(),
                 customer.getIsOrganization(),
-                customer.getIsPerson()
+                customer.getIsPerson(),
+                IfMatch.version(ifMatch, customer.getVersion())
         );
-        return ResponseEntity.ok(repository.update(updatedCustomer));
+        try {
+            return repository.update(updatedCustomer)
+                    .map(updated -> ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(updated))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    @PostMapping("/upsert")
+    public ResponseEntity<Customer> upsert(@RequestBody Customer customer) {
+        try {
+            return ResponseEntity.ok(repository.upsert(customer));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{code}")
     public ResponseEntity<Void> delete(@PathVariable String code) {
-        if (!repository.findById(code).isPresent()) {
+        if (!repository.delete(code)) {
             return ResponseEntity.notFound().build();
         }
-        repository.delete(code);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
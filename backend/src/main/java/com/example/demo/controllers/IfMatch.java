@@ -0,0 +1,36 @@
+package com.example.demo.controllers;
+
+/**
+ * Reads the row version a client expects from its {@code If-Match} header; the ETags of single rows are
+ * their quoted version numbers.
+ */
+final class IfMatch {
+
+    // matches no row, so the update is refused with 412 if the row exists
+    private static final long NO_VERSION = -1;
+
+    private IfMatch() {
+    }
+
+    /**
+     * The expected version, {@code fallback} without a header, or {@code null} for {@code *} (any current
+     * version). A weak or foreign ETag can never match under the strong comparison If-Match requires.
+     */
+    static Long version(String header, Long fallback) {
+        if (header == null || header.isBlank()) {
+            return fallback;
+        }
+        String etag = header.trim();
+        if (etag.equals("*")) {
+            return null;
+        }
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            return NO_VERSION;
+        }
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repository.IndexAdvice;
+import com.example.demo.repository.IndexAdvisor;
+import com.example.demo.repository.IndexBuild;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/indexes")
+public class IndexAdvisorController {
+
+    @Autowired
+    private IndexAdvisor advisor;
+
+    @GetMapping("/advice")
+    public List<IndexAdvice> advice() {
+        return advisor.advise();
+    }
+
+    /**
+     * Starts creating the advised indexes; {@code GET /build} follows the progress.
+     */
+    @PostMapping("/apply")
+    public ResponseEntity<IndexBuild> apply() {
+        if (!advisor.applyEnabled()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return advisor.apply()
+                .map(build -> ResponseEntity.accepted().location(URI.create("/api/admin/indexes/build")).body(build))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(advisor.build()));
+    }
+
+    @GetMapping("/build")
+    public IndexBuild build() {
+        return advisor.build();
+    }
+}
@@ -1,26 +1,63 @@
 package com.example.demo.controllers;
 
+import com.example.demo.repository.CountMode;
+import com.example.demo.repository.ImportResult;
+import com.example.demo.repository.ImportResult.RowError;
+import com.example.demo.repository.JsonPage;
+import com.example.demo.repository.KeysetPage;
 import com.example.demo.repository.LotRepository;
+import com.example.demo.repository.VersionConflictException;
+import com.example.demo.repository.Versioned;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jooqdata.tables.pojos.Lot;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/lots")
 public class LotController {
 
+    private static final Set<String> CURRENCY_CODES = Set.of("RUB", "USD", "EUR");
+    private static final Set<String> NDS_RATES = Set.of("Без НДС", "18%", "20%");
+
     @Autowired
     private LotRepository repository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PageResponses pages;
+
+    @Value("${demo.import.chunk-size:500}")
+    private int chunkSize;
+
     @GetMapping
-    public Page<Lot> getAll(
+    public ResponseEntity<byte[]> getAll(
             @RequestParam(required = false) String lotName,
             @RequestParam(required = false) String customerCode,
             @RequestParam(required = false) Double minPrice,
@@ -28,20 +65,111 @@ public class LotController {
             @RequestParam(required = false) String currencyCode,
             @RequestParam(required = false) String ndsRate,
             @RequestParam(required = false) String placeDelivery,
-            @PageableDefault(size = 20) Pageable pageable) {
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest request) {
         /*
                 "currencyCode": "USD",
                 "placeDelivery": "Acme Warehouse, New York",
                 "dateDelivery": "2023-12-15T10:00:00"*/
-        return repository.findAll(pageable, lotName, customerCode,
+        JsonPage page = repository.findAllJson(pageable, count, lotName, customerCode,
                 minPrice, maxPrice, currencyCode, ndsRate, placeDelivery);
+        return pages.respond(page, request);
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<KeysetPage<Lot>> getAllAfter(
+            @RequestParam String after,
+            @RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String currencyCode,
+            @RequestParam(required = false) String ndsRate,
+            @RequestParam(required = false) String placeDelivery,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return seek(after, null, pageable, lotName, customerCode,
+                minPrice, maxPrice, currencyCode, ndsRate, placeDelivery);
+    }
+
+    @GetMapping(params = {"before", "!after"})
+    public ResponseEntity<KeysetPage<Lot>> getAllBefore(
+            @RequestParam String before,
+            @RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String currencyCode,
+            @RequestParam(required = false) String ndsRate,
+            @RequestParam(required = false) String placeDelivery,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return seek(null, before, pageable, lotName, customerCode,
+                minPrice, maxPrice, currencyCode, ndsRate, placeDelivery);
+    }
+
+    private ResponseEntity<KeysetPage<Lot>> seek(String after, String before, Pageable pageable, String lotName,
+                                                 String customerCode, Double minPrice, Double maxPrice,
+                                                 String currencyCode, String ndsRate, String placeDelivery) {
+        try {
+            return ResponseEntity.ok(repository.findAll(after, before, pageable, lotName, customerCode,
+                    minPrice, maxPrice, currencyCode, ndsRate, placeDelivery));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String currencyCode,
+            @RequestParam(required = false) String ndsRate,
+            @RequestParam(required = false) String placeDelivery,
+            @RequestParam(defaultValue = "ndjson") String format,
+            Sort sort) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        if (format.equals("ndjson")) {
+            contentType = MediaType.APPLICATION_NDJSON;
+            body = out -> {
+                try (SequenceWriter rows = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                    repository.export(sort, lotName, customerCode, minPrice, maxPrice, currencyCode, ndsRate,
+                            placeDelivery, record -> rows.write(record.into(Lot.class)));
+                }
+            };
+        } else if (format.equals("csv")) {
+            contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+            body = out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                Csv.writeRow(writer, "lotName", "customerCode", "price", "currencyCode", "ndsRate",
+                        "placeDelivery", "dateDelivery", "version");
+                repository.export(sort, lotName, customerCode, minPrice, maxPrice, currencyCode, ndsRate,
+                        placeDelivery, record -> Csv.writeRow(writer, record.intoArray()));
+                writer.flush();
+            };
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lots." + format + "\"")
+                .body(body);
     }
 
     @GetMapping("/{name}")
-    public ResponseEntity<Lot> getByName(@PathVariable String name) {
-        Optional<Lot> lot = repository.findById(name);
-        return lot.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Lot> getByName(@PathVariable String name, WebRequest request) {
+        Optional<Versioned<Lot>> lot = repository.findVersioned(name);
+        if (lot.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(lot.get().etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(lot.get().etag())
+                .body(lot.get().value());
     }
 
     @PostMapping
@@ -54,14 +182,84 @@ public class LotController {
         }
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResult> createBatch(InputStream body) throws IOException {
+        List<RowError> errors = new ArrayList<>();
+        List<Lot> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkRows = new ArrayList<>(chunkSize);
+        int imported = 0;
+        int row = 0;
+
+        // a JSON array and a stream of newline-delimited objects are both read one element at a time
+        try (MappingIterator<Lot> lots = objectMapper.readerFor(Lot.class).readValues(body)) {
+            while (true) {
+                row++;
+                Lot lot;
+                try {
+                    // hasNextValue parses too, so malformed input can surface here as well
+                    if (!lots.hasNextValue()) {
+                        break;
+                    }
+                    lot = lots.nextValue();
+                } catch (JsonParseException e) {
+                    errors.add(new RowError(row, null, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    errors.add(new RowError(row, null, e.getOriginalMessage()));
+                    continue;
+                }
+
+                String invalid = validate(lot);
+                if (invalid != null) {
+                    errors.add(new RowError(row, lot.getLotName(), invalid));
+                    continue;
+                }
+                chunk.add(lot);
+                chunkRows.add(row);
+                if (chunk.size() == chunkSize) {
+                    imported += insertChunk(chunk, chunkRows, errors);
+                }
+            }
+        }
+        imported += insertChunk(chunk, chunkRows, errors);
+
+        return ResponseEntity.ok(new ImportResult(imported, errors));
+    }
+
+    private int insertChunk(List<Lot> chunk, List<Integer> chunkRows, List<RowError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, String> failures = repository.insertAll(chunk);
+        failures.forEach((i, message) -> errors.add(new RowError(chunkRows.get(i), chunk.get(i).getLotName(), message)));
+        int inserted = chunk.size() - failures.size();
+        chunk.clear();
+        chunkRows.clear();
+        return inserted;
+    }
+
+    private static String validate(Lot lot) {
+        if (lot.getLotName() == null || lot.getLotName().isBlank()) {
+            return "lotName is required";
+        }
+        if (lot.getPrice() == null) {
+            return "price is required";
+        }
+        if (lot.getCurrencyCode() != null && !CURRENCY_CODES.contains(lot.getCurrencyCode())) {
+            return "currencyCode must be one of " + CURRENCY_CODES;
+        }
+        if (lot.getNdsRate() != null && !NDS_RATES.contains(lot.getNdsRate())) {
+            return "ndsRate must be one of " + NDS_RATES;
+        }
+        return null;
+    }
+
     @PutMapping("/{name}")
     public ResponseEntity<Lot> update(
             @PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Lot lot
     ) {
-        if (!repository.findById(name).isPresent()) {
-            return ResponseEntity.notFound().build();
-        }
         Lot updatedLot = new Lot(
                 name,
                 lot.getCustomerCode(),
@@ -69,17 +267,32 @@ public class LotController {
                 lot.getCurrencyCode(),
                 lot.getNdsRate(),
                 lot.getPlaceDelivery(),
-                lot.getDateDelivery()
+                lot.getDateDelivery(),
+                IfMatch.version(ifMatch, lot.getVersion())
         );
-        return ResponseEntity.ok(repository.update(updatedLot));
+        try {
+            return repository.update(updatedLot)
+                    .map(updated -> ResponseEntity.ok().eTag(String.valueOf(updated.getVersion())).body(updated))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    @PostMapping("/upsert")
+    public ResponseEntity<Lot> upsert(@RequestBody Lot lot) {
+        try {
+            return ResponseEntity.ok(repository.upsert(lot));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{name}")
     public ResponseEntity<Void> delete(@PathVariable String name) {
-        if (!repository.findById(name).isPresent()) {
+        if (!repository.delete(name)) {
             return ResponseEntity.notFound().build();
         }
-        repository.delete(name);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repository.JsonPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Writes list pages. Clients that accept gzip get the page's cached gzip bytes with
+ * {@code Content-Encoding: gzip}, so Tomcat passes them through instead of compressing the same page on
+ * every request. The gzip representation has its own ETag because its bytes differ from the plain JSON.
+ */
+@Component
+public class PageResponses {
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minSize;
+
+    /**
+     * The response for {@code page}, or {@code null} when the client's copy is still current.
+     */
+    public ResponseEntity<byte[]> respond(JsonPage page, WebRequest request) {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? gzipEtag(page.etag()) : page.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        byte[] json = page.json();
+        if (!gzip || json.length < minSize.toBytes()) {
+            return response.body(json);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzip());
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Whether {@code acceptEncoding} allows gzip: an explicit {@code gzip} or {@code x-gzip} decides over
+     * {@code *}, and a quality of zero, or one that does not parse, refuses.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                return accepted(parts);
+            }
+            if (name.equals("*") && wildcard == null) {
+                wildcard = accepted(parts);
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    private static boolean accepted(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim()) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repository.KeysetPage;
+import com.example.demo.repository.ReactiveCustomerRepository;
+import jooqdata.tables.pojos.Customer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/reactive/customers")
+@ConditionalOnProperty(name = "demo.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerController {
+
+    @Autowired
+    private ReactiveCustomerRepository repository;
+
+    @GetMapping
+    public Mono<ResponseEntity<KeysetPage<Customer>>> getCustomers(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) Boolean isOrganization,
+            @RequestParam(required = false) Boolean isPerson,
+            @RequestParam(required = false) String customerKpp,
+            @RequestParam(required = false) String customerLegalAddress,
+            @RequestParam(required = false) String customerPostalAddress,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String customerCodeMain,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return repository.findAll(
+                        after,
+                        after == null ? before : null,
+                        customerCode,
+                        pageable,
+                        name,
+                        inn,
+                        isOrganization,
+                        isPerson,
+                        customerKpp,
+                        customerLegalAddress,
+                        customerPostalAddress,
+                        customerEmail,
+                        customerCodeMain)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Customer> stream(
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) Boolean isOrganization,
+            @RequestParam(required = false) Boolean isPerson,
+            @RequestParam(required = false) String customerKpp,
+            @RequestParam(required = false) String customerLegalAddress,
+            @RequestParam(required = false) String customerPostalAddress,
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String customerCodeMain,
+            Sort sort) {
+        return repository.stream(
+                sort,
+                customerCode,
+                name,
+                inn,
+                isOrganization,
+                isPerson,
+                customerKpp,
+                customerLegalAddress,
+                customerPostalAddress,
+                customerEmail,
+                customerCodeMain);
+    }
+
+    @GetMapping("/{customerCode}")
+    public Mono<ResponseEntity<Customer>> getById(@PathVariable String customerCode) {
+        return repository.findById(customerCode)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
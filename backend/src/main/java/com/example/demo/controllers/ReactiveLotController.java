@@ -0,0 +1,67 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repository.KeysetPage;
+import com.example.demo.repository.ReactiveLotRepository;
+import jooqdata.tables.pojos.Lot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lot reads over R2DBC. The request thread is released as soon as the query is issued and the response is
+ * written when the rows arrive, so polling clients do not each hold a servlet thread and a JDBC connection.
+ */
+@RestController
+@RequestMapping("/api/reactive/lots")
+@ConditionalOnProperty(name = "demo.reactive.enabled", havingValue = "true")
+public class ReactiveLotController {
+
+    @Autowired
+    private ReactiveLotRepository repository;
+
+    @GetMapping
+    public Mono<ResponseEntity<KeysetPage<Lot>>> getAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String currencyCode,
+            @RequestParam(required = false) String ndsRate,
+            @RequestParam(required = false) String placeDelivery,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return repository.findAll(after, after == null ? before : null, pageable,
+                        lotName, customerCode, minPrice, maxPrice, currencyCode, ndsRate, placeDelivery)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Lot> stream(
+            @RequestParam(required = false) String lotName,
+            @RequestParam(required = false) String customerCode,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String currencyCode,
+            @RequestParam(required = false) String ndsRate,
+            @RequestParam(required = false) String placeDelivery,
+            Sort sort) {
+        return repository.stream(sort, lotName, customerCode, minPrice, maxPrice, currencyCode, ndsRate,
+                placeDelivery);
+    }
+
+    @GetMapping("/{lotName}")
+    public Mono<ResponseEntity<Lot>> getById(@PathVariable String lotName) {
+        return repository.findById(lotName)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repository.SearchRepository;
+import com.example.demo.repository.SearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private SearchRepository repository;
+
+    @GetMapping
+    public ResponseEntity<List<SearchResult>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(repository.search(q, Math.min(limit, MAX_LIMIT)));
+    }
+}
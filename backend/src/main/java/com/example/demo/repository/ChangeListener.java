@@ -0,0 +1,192 @@
+package com.example.demo.repository;
+
+import com.example.demo.repository.TableChangeEvent.Change;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jooqdata.Tables;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the caches of this node in step with writes made by the others. The triggers from
+ * {@code migrations/003_change_notify.sql} NOTIFY every committed row change on {@value #CHANNEL}; a
+ * dedicated connection (outside the pool, to the primary) LISTENs for them, evicts the row from the
+ * Spring caches and republishes it as a {@link TableChangeEvent} for {@link CountCache} and
+ * {@link PageCache}.
+ *
+ * <p>The application's own pools connect with {@link #ORIGIN} as their {@code application_name}, so
+ * notifications of this node's writes, already published by the repositories, are skipped. After a lost
+ * connection every table is reset, since notifications sent in the meantime are gone.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.notify.enabled", havingValue = "true")
+public class ChangeListener implements SmartLifecycle {
+
+    public static final String ORIGIN = "demo-" + UUID.randomUUID().toString().substring(0, 8);
+
+    static final String CHANNEL = "purchase_changes";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeListener.class);
+
+    private static final Map<String, String> CACHES = Map.of(
+            Tables.LOT.getName(), "lots",
+            Tables.CUSTOMER.getName(), "customers"
+    );
+
+    // bounds how long a silently dropped connection goes unnoticed
+    private static final int POLL_MILLIS = 10_000;
+
+    @Autowired
+    private DataSourceProperties dataSource;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${demo.notify.reconnect-delay:1s}")
+    private Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("pg-listen").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Connection current = connection;
+        if (current != null) {
+            try {
+                // unblocks getNotifications
+                current.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean listenedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSource.determineUrl(),
+                    dataSource.determineUsername(), dataSource.determinePassword())) {
+                this.connection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (listenedBefore) {
+                    reset();
+                }
+                listenedBefore = true;
+                log.info("Listening for changes on {} as {}", CHANNEL, ORIGIN);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications == null || notifications.length == 0) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            onNotification(notification.getParameter());
+                        } catch (RuntimeException e) {
+                            // the change cannot be applied precisely, so drop everything it might have touched
+                            log.error("Failed to apply change notification {}, resetting all tables",
+                                    notification.getParameter(), e);
+                            reset();
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Change listener stopped, reconnecting in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                this.connection = null;
+            }
+        }
+    }
+
+    private void onNotification(String payload) {
+        JsonNode change;
+        try {
+            change = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed change notification {}", payload);
+            return;
+        }
+        if (ORIGIN.equals(change.path("origin").asText())) {
+            return;
+        }
+        String op = change.path("op").asText();
+        String key = change.path("key").isTextual() ? change.path("key").asText() : null;
+        publish(change.path("table").asText(), key, op.equals("TRUNCATE") ? Change.RESET : Change.valueOf(op));
+    }
+
+    private void reset() {
+        for (String table : CACHES.keySet()) {
+            try {
+                publish(table, null, Change.RESET);
+            } catch (RuntimeException e) {
+                log.error("Failed to reset the caches of {}", table, e);
+            }
+        }
+    }
+
+    private void publish(String table, String key, Change change) {
+        String cacheName = CACHES.get(table);
+        Cache cache = cacheName == null ? null : cacheManager.getCache(cacheName);
+        if (cache != null) {
+            if (key == null) {
+                cache.clear();
+            } else {
+                cache.evict(key);
+            }
+        }
+        events.publishEvent(new TableChangeEvent(table, key, change));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.demo.repository;
+
+import com.example.demo.DataSourceRoute;
+import com.example.demo.repository.TableChangeEvent.Change;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jooq.Condition;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Filtered row counts keyed by table and rendered condition, so paging through one filter result costs
+ * one count instead of one per page. Any write to a table drops its filtered counts; the unfiltered
+ * count is kept and adjusted by inserts and deletes instead. Counts read from the replica are kept apart
+ * and always dropped, since the replica may not have the write yet.
+ */
+@Component
+public class CountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CountCache.class);
+
+    private static final String UNFILTERED = DSL.noCondition().toString();
+    private static final String REPLICA = "replica|";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${demo.count-cache.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${demo.count-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // read by the expiry, so that tests can move time on instead of waiting out the ttl
+    private Ticker ticker = Ticker.systemTicker();
+
+    private final Map<String, Counts> tables = new ConcurrentHashMap<>();
+
+    public long count(Table<?> table, Condition condition, LongSupplier loader) {
+        Counts counts = tables.computeIfAbsent(table.getName(), this::counts);
+        String key = DataSourceRoute.lagging() ? REPLICA + condition : condition.toString();
+
+        Long cached = counts.entries.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = counts.generation.get();
+        long count = loader.getAsLong();
+        // a write that happened while counting may or may not be included, so don't keep the result
+        if (counts.generation.get() == generation) {
+            counts.entries.put(key, count);
+            if (counts.generation.get() != generation) {
+                counts.entries.invalidate(key);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Drops what {@code event} makes stale. A failure is logged rather than thrown, so that it does not keep
+     * the other listeners of the change from running, nor fail the write that published it.
+     */
+    @EventListener
+    public void onChange(TableChangeEvent event) {
+        try {
+            drop(event);
+        } catch (RuntimeException e) {
+            log.error("Dropping counts failed on {}", event, e);
+        }
+    }
+
+    private void drop(TableChangeEvent event) {
+        Counts counts = tables.get(event.table());
+        if (counts == null) {
+            return;
+        }
+        counts.generation.incrementAndGet();
+        if (event.change() == Change.RESET) {
+            counts.entries.invalidateAll();
+            return;
+        }
+        counts.entries.asMap().keySet().removeIf(key -> !key.equals(UNFILTERED));
+        long delta = switch (event.change()) {
+            case INSERT -> 1;
+            case DELETE -> -1;
+            default -> 0;
+        };
+        if (delta != 0) {
+            counts.entries.asMap().computeIfPresent(UNFILTERED, (key, count) -> count + delta);
+        }
+    }
+
+    private Counts counts(String table) {
+        Cache<String, Long> entries = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String key, Long count, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    // adjusting the unfiltered count does not make it any fresher
+                    @Override
+                    public long expireAfterUpdate(String key, Long count, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Long count, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(maxEntries)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, entries, "counts." + table);
+        return new Counts(entries);
+    }
+
+    private static final class Counts {
+        private final Cache<String, Long> entries;
+        private final AtomicLong generation = new AtomicLong();
+
+        private Counts(Cache<String, Long> entries) {
+            this.entries = entries;
+        }
+    }
+}
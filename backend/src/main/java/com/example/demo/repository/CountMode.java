@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+/**
+ * How a paged listing obtains its total. Everything but {@link #EXACT} avoids the second, full
+ * {@code COUNT(*)} round trip.
+ */
+public enum CountMode {
+    /** Separate {@code COUNT(*)} over the filtered table. */
+    EXACT,
+    /** No total at all: a slice that only knows whether a next page exists. */
+    NONE,
+    /** Exact total computed in the page query itself with {@code count(*) over ()}. */
+    WINDOW,
+    /** Planner estimate from {@code pg_class} (unfiltered) or {@code EXPLAIN} (filtered). */
+    ESTIMATE
+}
@@ -0,0 +1,234 @@
+package com.example.demo.repository;
+
+import com.example.demo.repository.ImportResult.RowError;
+import com.example.demo.repository.TableChangeEvent.Change;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jooqdata.Tables;
+import jooqdata.tables.pojos.Customer;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.impl.DSL;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bulk customer import: rows are streamed with COPY into an all-text staging table, validated there, and
+ * merged into purchase.customer with one INSERT ... ON CONFLICT. Parents referenced by customer_code_main
+ * may come later in the same file; the merge is a single statement, so the self-referencing foreign key
+ * is only checked once every row is in.
+ */
+@Component
+public class CustomerImporter {
+
+    private static final String COLUMNS = "customer_code, customer_name, customer_inn, customer_kpp, "
+            + "customer_legal_address, customer_postal_address, customer_email, customer_code_main, "
+            + "is_organization, is_person";
+
+    // a header line this long would be no customer export
+    private static final int MAX_HEADER = 64 * 1024;
+
+    private static final String BOOLEAN = "'^(t|true|f|false|y|yes|n|no|on|off|1|0)$'";
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    /**
+     * CSV with a header line and the columns in table order (customer_code first, is_person last). The
+     * version column of an export may follow; it is ignored, the server assigns versions.
+     */
+    public ImportResult importCsv(InputStream csv) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(csv);
+        String columns = headerColumns(in) > 10 ? COLUMNS + ", version" : COLUMNS;
+        return importRows(List.of(), copy -> copy.copyIn(
+                "COPY customer_import (" + columns + ") FROM STDIN WITH (FORMAT csv, HEADER true)", in));
+    }
+
+    /**
+     * Newline-delimited JSON objects shaped like the customer API payloads.
+     */
+    public ImportResult importNdjson(InputStream ndjson) {
+        List<RowError> rejected = new ArrayList<>();
+        return importRows(rejected, copy -> {
+            CopyIn copyIn = copy.copyIn(
+                    "COPY customer_import (row_number, " + COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+            long rows = 0;
+            try (MappingIterator<Customer> customers = objectMapper.readerFor(Customer.class).readValues(ndjson)) {
+                int row = 0;
+                while (true) {
+                    row++;
+                    Customer customer;
+                    try {
+                        // hasNextValue parses too, so malformed input can surface here as well
+                        if (!customers.hasNextValue()) {
+                            break;
+                        }
+                        customer = customers.nextValue();
+                    } catch (JsonParseException e) {
+                        rejected.add(new RowError(row, null, "Malformed JSON: " + e.getOriginalMessage()));
+                        break;
+                    } catch (JsonMappingException e) {
+                        rejected.add(new RowError(row, null, e.getOriginalMessage()));
+                        continue;
+                    }
+                    byte[] line = csvLine(row, customer);
+                    copyIn.writeToCopy(line, 0, line.length);
+                    rows++;
+                }
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            return rows;
+        });
+    }
+
+    private ImportResult importRows(List<RowError> rejected, CopyAction copyAction) {
+        record Merged(List<RowError> errors, Result<Record> merged) {
+        }
+
+        Merged outcome = dsl.transactionResult(configuration -> {
+            DSLContext tx = DSL.using(configuration);
+            tx.execute("CREATE TEMPORARY TABLE customer_import ("
+                    + "row_number bigserial, customer_code text, customer_name text, customer_inn text, "
+                    + "customer_kpp text, customer_legal_address text, customer_postal_address text, "
+                    + "customer_email text, customer_code_main text, is_organization text, is_person text, "
+                    + "version text, depth int, error text) ON COMMIT DROP");
+
+            tx.connection(connection -> copyAction.copy(connection.unwrap(PGConnection.class).getCopyAPI()));
+
+            tx.execute("UPDATE customer_import SET error = 'customer_code and customer_name are required' "
+                    + "WHERE coalesce(customer_code, '') = '' OR coalesce(customer_name, '') = ''");
+            tx.execute("UPDATE customer_import SET error = 'is_organization and is_person must be booleans' "
+                    + "WHERE error IS NULL AND (is_organization !~* " + BOOLEAN + " OR is_person !~* " + BOOLEAN + ")");
+            tx.execute("UPDATE customer_import i SET error = 'superseded by a later row with the same customer_code' "
+                    + "FROM (SELECT row_number, row_number() OVER (PARTITION BY customer_code ORDER BY row_number DESC) AS rank "
+                    + "      FROM customer_import WHERE error IS NULL) d "
+                    + "WHERE i.row_number = d.row_number AND d.rank > 1");
+
+            // walk down from rows whose parent is absent, themselves or already stored; whatever is not reached
+            // has a missing parent or sits in a cycle
+            tx.execute("WITH RECURSIVE resolved (customer_code, depth, path) AS ("
+                    + "  SELECT s.customer_code, 0, ARRAY[s.customer_code] FROM customer_import s "
+                    + "  WHERE s.error IS NULL AND (coalesce(s.customer_code_main, '') = '' "
+                    + "    OR s.customer_code_main = s.customer_code "
+                    + "    OR EXISTS (SELECT 1 FROM purchase.customer c WHERE c.customer_code = s.customer_code_main)) "
+                    + "  UNION ALL "
+                    + "  SELECT s.customer_code, r.depth + 1, r.path || s.customer_code FROM customer_import s "
+                    + "  JOIN resolved r ON s.customer_code_main = r.customer_code "
+                    + "  WHERE s.error IS NULL AND s.customer_code <> ALL (r.path)) "
+                    + "UPDATE customer_import i SET depth = r.depth "
+                    + "FROM (SELECT customer_code, min(depth) AS depth FROM resolved GROUP BY customer_code) r "
+                    + "WHERE i.error IS NULL AND i.customer_code = r.customer_code");
+            tx.execute("UPDATE customer_import SET error = 'customer_code_main ' || customer_code_main "
+                    + "|| ' does not exist or forms a cycle' WHERE error IS NULL AND depth IS NULL");
+
+            Result<Record> merged = tx.fetch("INSERT INTO purchase.customer (" + COLUMNS + ") "
+                    + "SELECT customer_code, customer_name, nullif(customer_inn, ''), nullif(customer_kpp, ''), "
+                    + "  customer_legal_address, customer_postal_address, customer_email, "
+                    + "  nullif(customer_code_main, ''), is_organization::boolean, is_person::boolean "
+                    + "FROM customer_import WHERE error IS NULL ORDER BY depth "
+                    + "ON CONFLICT (customer_code) DO UPDATE SET "
+                    + "  customer_name = excluded.customer_name, customer_inn = excluded.customer_inn, "
+                    + "  customer_kpp = excluded.customer_kpp, customer_legal_address = excluded.customer_legal_address, "
+                    + "  customer_postal_address = excluded.customer_postal_address, "
+                    + "  customer_email = excluded.customer_email, customer_code_main = excluded.customer_code_main, "
+                    + "  is_organization = excluded.is_organization, is_person = excluded.is_person, "
+                    + "  version = nextval('purchase.row_version') "
+                    + "RETURNING customer_code, xmax = 0 AS inserted");
+
+            List<RowError> errors = tx.fetch("SELECT row_number, customer_code, error FROM customer_import "
+                            + "WHERE error IS NOT NULL ORDER BY row_number")
+                    .map(r -> new RowError(r.get(0, Integer.class), r.get(1, String.class), r.get(2, String.class)));
+            return new Merged(errors, merged);
+        });
+
+        Cache cache = cacheManager.getCache("customers");
+        for (Record record : outcome.merged()) {
+            String customerCode = record.get(0, String.class);
+            if (cache != null) {
+                cache.evict(customerCode);
+            }
+            Change change = record.get(1, Boolean.class) ? Change.INSERT : Change.UPDATE;
+            events.publishEvent(new TableChangeEvent(Tables.CUSTOMER.getName(), customerCode, change));
+        }
+
+        List<RowError> errors = new ArrayList<>(rejected);
+        errors.addAll(outcome.errors());
+        errors.sort(Comparator.comparingInt(RowError::row));
+        return new ImportResult(outcome.merged().size(), errors);
+    }
+
+    private static byte[] csvLine(int row, Customer customer) {
+        StringBuilder line = new StringBuilder().append(row);
+        for (Object value : new Object[] {
+                customer.getCustomerCode(),
+                customer.getCustomerName(),
+                customer.getCustomerInn(),
+                customer.getCustomerKpp(),
+                customer.getCustomerLegalAddress(),
+                customer.getCustomerPostalAddress(),
+                customer.getCustomerEmail(),
+                customer.getCustomerCodeMain(),
+                customer.getIsOrganization(),
+                customer.getIsPerson()}) {
+            line.append(',');
+            if (value != null) {
+                line.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        return line.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The number of columns in the header line, leaving {@code csv} at its start.
+     */
+    private static int headerColumns(BufferedInputStream csv) throws IOException {
+        csv.mark(MAX_HEADER);
+        int columns = 1;
+        boolean quoted = false;
+        int b;
+        while ((b = csv.read()) != -1 && b != '\n') {
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                columns++;
+            }
+        }
+        csv.reset();
+        return columns;
+    }
+
+    @FunctionalInterface
+    private interface CopyAction {
+        long copy(CopyManager copy) throws Exception;
+    }
+}
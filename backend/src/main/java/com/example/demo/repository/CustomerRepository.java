@@ -1,19 +1,28 @@
 package com.example.demo.repository;
 
+import com.example.demo.Bulkheads;
+import com.example.demo.Bulkheads.Lane;
+import com.example.demo.repository.TableChangeEvent.Change;
 import jooqdata.Tables;
 import jooqdata.tables.pojos.Customer;
 import jooqdata.tables.records.CustomerRecord;
 import org.jooq.*;
+import org.jooq.Record;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -23,7 +32,25 @@ public class CustomerRepository {
     @Autowired
     private DSLContext dsl;
 
-    private static final Map<String, Field<?>> SORT_FIELDS = Map.of(
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Value("${demo.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    static final Map<String, Field<?>> SORT_FIELDS = Map.of(
             "customerCode", Tables.CUSTOMER.CUSTOMER_CODE,
             "customerName", Tables.CUSTOMER.CUSTOMER_NAME,
             "customerInn", Tables.CUSTOMER.CUSTOMER_INN,
@@ -36,9 +63,17 @@ public class CustomerRepository {
             "customerCodeMain", Tables.CUSTOMER.CUSTOMER_CODE_MAIN
     );
 
-    public Page<Customer> findAll(
+    // true when INSERT ... ON CONFLICT inserted the row rather than updating it
+    private static final Field<Boolean> INSERTED = DSL.field("xmax = 0", Boolean.class).as("inserted");
+
+    /**
+     * The page of matching customers as JSON, with its total obtained as {@code count} says, answered from
+     * the {@link PageCache} until the next write to the table.
+     */
+    public JsonPage findAllJson(
             String customerCode,
             Pageable pageable,
+            CountMode count,
             String name,
             String inn,
             Boolean isOrganization,
@@ -48,8 +83,134 @@ public class CustomerRepository {
             String customerPostalAddress,
             String customerEmail,
             String customerCodeMain) {
+        Condition condition = condition(customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        Object[] filters = filters(customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        // before the lookup, so that the requests the cache answers count as much as the ones it does not
+        indexAdvisor.observe(Tables.CUSTOMER, condition, pageable.getSort(), SORT_FIELDS, filters);
+        return pageCache.page(Tables.CUSTOMER, condition, pageable, count,
+                () -> fetch(condition, filters, pageable, count));
+    }
 
+    private Versioned<Supplier<Slice<Customer>>> fetch(Condition condition, Object[] filters,
+                                                       Pageable pageable, CountMode count) {
+        QueryTags tags = tags("customers.findAll", pageable.getSort(), filters);
+        return QueryTags.tagged(tags, () -> Paging.fetch(dsl, countCache, Tables.CUSTOMER,
+                Tables.CUSTOMER.CUSTOMER_CODE, condition, orderFields(pageable.getSort()), pageable, count,
+                Customer.class));
+    }
 
+    /**
+     * Streams every matching row to {@code writer} through a server-side cursor. Rows are handed over as
+     * records so callers can serialize them without building POJOs.
+     */
+    public void export(
+            Sort sort,
+            String customerCode,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain,
+            RowWriter<CustomerRecord> writer) {
+        Condition condition = condition(customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        List<OrderField<?>> orderFields = orderFields(sort);
+        QueryTags tags = tags("customers.export", sort, filters(customerCode, name, inn, isOrganization, isPerson,
+                customerKpp, customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain));
+
+        bulkheads.acquire(Lane.EXPORT);
+        try {
+            // Postgres only honours the fetch size inside a transaction; otherwise the driver buffers everything
+            QueryTags.tagged(tags, () -> dsl.transaction(configuration -> {
+                try (Cursor<CustomerRecord> cursor = DSL.using(configuration)
+                        .selectFrom(Tables.CUSTOMER)
+                        .where(condition)
+                        .orderBy(orderFields)
+                        .fetchSize(exportFetchSize)
+                        .fetchLazy()) {
+                    for (CustomerRecord record : cursor) {
+                        writer.write(record);
+                    }
+                }
+            }));
+        } finally {
+            bulkheads.release(Lane.EXPORT);
+        }
+    }
+
+    static List<OrderField<?>> orderFields(Sort sort) {
+        return sort.stream()
+                .map(order -> {
+                    Field<?> field = SORT_FIELDS.get(order.getProperty());
+                    return order.isAscending() ? field.asc() : field.desc();
+                })
+                .collect(Collectors.toList());
+    }
+
+    public KeysetPage<Customer> findAll(
+            String after,
+            String before,
+            String customerCode,
+            Pageable pageable,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
+        Keyset keyset = Keyset.of(pageable.getSort(), SORT_FIELDS, Tables.CUSTOMER.CUSTOMER_CODE);
+        Condition condition = condition(customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        Object[] filters = filters(customerCode, name, inn, isOrganization, isPerson, customerKpp,
+                customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        indexAdvisor.observe(Tables.CUSTOMER, condition, pageable.getSort(), SORT_FIELDS, filters);
+        QueryTags tags = tags("customers.findAllSeek", pageable.getSort(), filters);
+        return QueryTags.tagged(tags, () -> keyset.fetch(dsl, Tables.CUSTOMER, condition, after, before,
+                pageable.getPageSize(), Customer.class));
+    }
+
+    // request filter names alternating with their values
+    private static Object[] filters(
+            String customerCode,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
+        return new Object[] {"customerCode", customerCode, "name", name, "inn", inn,
+                "isOrganization", isOrganization, "isPerson", isPerson, "customerKpp", customerKpp,
+                "customerLegalAddress", customerLegalAddress, "customerPostalAddress", customerPostalAddress,
+                "customerEmail", customerEmail, "customerCodeMain", customerCodeMain};
+    }
+
+    private static QueryTags tags(String method, Sort sort, Object[] filters) {
+        return new QueryTags(method, QueryTags.filters(filters), QueryTags.sort(sort, SORT_FIELDS));
+    }
+
+    static Condition condition(
+            String customerCode,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
         Condition condition = DSL.noCondition();
         if (customerCode != null && !customerCode.isBlank()) {
             condition = condition.and(Tables.CUSTOMER.CUSTOMER_CODE.likeIgnoreCase("%" + customerCode + "%"));
@@ -81,53 +242,103 @@ public class CustomerRepository {
         if (customerCodeMain != null && !customerCodeMain.isBlank()) {
             condition = condition.and(Tables.CUSTOMER.CUSTOMER_CODE_MAIN.likeIgnoreCase("%" + customerCodeMain + "%"));
         }
+        return condition;
+    }
 
-        List<OrderField<?>> orderFields = pageable.getSort().stream()
-                .map(order -> {
-                    Field<?> field = SORT_FIELDS.get(order.getProperty());
-                    return order.isAscending() ? field.asc() : field.desc();
-                })
-                .collect(Collectors.toList());
-
-        List<Customer> content = dsl.selectFrom(Tables.CUSTOMER)
-                .where(condition)
-                .orderBy(orderFields)
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Customer.class);
+    /**
+     * The customer with the ETag of its version. Both are cached together in {@code customers}, so they
+     * always belong to the same read. A read from the replica uses the cache but does not fill it, see
+     * {@link LotRepository#findVersioned}.
+     */
+    @Cacheable(cacheNames = "customers", key = "#customerCode",
+            unless = "T(com.example.demo.DataSourceRoute).lagging()")
+    public Optional<Versioned<Customer>> findVersioned(String customerCode) {
+        return QueryTags.tagged("customers.findVersioned", () -> dsl.selectFrom(Tables.CUSTOMER)
+                .where(Tables.CUSTOMER.CUSTOMER_CODE.eq(customerCode))
+                .fetchOptional()
+                .map(record -> new Versioned<>(record.into(Customer.class),
+                        RowVersion.etag(record.getVersion()))));
+    }
 
-        int total = dsl.fetchCount(
-                dsl.selectFrom(Tables.CUSTOMER).where(condition)
-        );
+    @CacheEvict(cacheNames = "customers", key = "#customer.customerCode")
+    public Customer save(Customer customer) {
+        CustomerRecord record = QueryTags.tagged("customers.save", () -> dsl.insertInto(Tables.CUSTOMER)
+                .set(newRow(customer))
+                .returning()
+                .fetchOne());
+        events.publishEvent(new TableChangeEvent(Tables.CUSTOMER.getName(), record.getCustomerCode(), Change.INSERT));
+        return record.into(Customer.class);
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    /**
+     * Overwrites the row and bumps its version. When {@code customer} carries a version the row is only
+     * written if it is still at that version; otherwise a {@link VersionConflictException} is thrown.
+     * Empty if there is no such customer.
+     */
+    @CacheEvict(cacheNames = "customers", key = "#customer.customerCode")
+    public Optional<Customer> update(Customer customer) {
+        CustomerRecord record = changes(customer);
+        Condition condition = Tables.CUSTOMER.CUSTOMER_CODE.eq(record.getCustomerCode());
+        if (customer.getVersion() != null) {
+            condition = condition.and(Tables.CUSTOMER.VERSION.eq(customer.getVersion()));
+        }
+        Condition row = condition;
+        Optional<Customer> updated = QueryTags.tagged("customers.update", () -> dsl.update(Tables.CUSTOMER)
+                .set(record)
+                .set(Tables.CUSTOMER.VERSION, RowVersion.NEXT)
+                .where(row)
+                .returning()
+                .fetchOptional()
+                .map(r -> r.into(Customer.class)));
+        if (updated.isPresent()) {
+            events.publishEvent(new TableChangeEvent(Tables.CUSTOMER.getName(), record.getCustomerCode(), Change.UPDATE));
+        } else if (customer.getVersion() != null
+                && dsl.fetchExists(Tables.CUSTOMER, Tables.CUSTOMER.CUSTOMER_CODE.eq(record.getCustomerCode()))) {
+            throw new VersionConflictException(Tables.CUSTOMER.getName(), record.getCustomerCode(), customer.getVersion());
+        }
+        return updated;
     }
 
-    public Optional<Customer> findById(String customerCode) {
-        return Optional.ofNullable(
-                dsl.selectFrom(Tables.CUSTOMER)
-                        .where(Tables.CUSTOMER.CUSTOMER_CODE.eq(customerCode))
-                        .fetchOneInto(Customer.class)
-        );
+    @CacheEvict(cacheNames = "customers", key = "#customer.customerCode")
+    public Customer upsert(Customer customer) {
+        CustomerRecord record = newRow(customer);
+        Record stored = QueryTags.tagged("customers.upsert", () -> dsl.insertInto(Tables.CUSTOMER)
+                .set(record)
+                .onConflict(Tables.CUSTOMER.CUSTOMER_CODE)
+                .doUpdate()
+                .set(changes(customer))
+                .set(Tables.CUSTOMER.VERSION, RowVersion.NEXT)
+                .returningResult(Tables.CUSTOMER.asterisk(), INSERTED)
+                .fetchOne());
+        Change change = stored.get(INSERTED) ? Change.INSERT : Change.UPDATE;
+        events.publishEvent(new TableChangeEvent(Tables.CUSTOMER.getName(), record.getCustomerCode(), change));
+        return stored.into(Tables.CUSTOMER).into(Customer.class);
     }
 
-    public Customer save(Customer customer) {
+    // a new row takes the next version from the column default whatever the client sent
+    private CustomerRecord newRow(Customer customer) {
         CustomerRecord record = dsl.newRecord(Tables.CUSTOMER);
         record.from(customer);
-        record.store();
-        return record.into(Customer.class);
+        record.changed(Tables.CUSTOMER.VERSION, false);
+        return record;
     }
 
-    public Customer update(Customer customer) {
+    // the columns a client may overwrite; the version only ever moves forward in SQL
+    private CustomerRecord changes(Customer customer) {
         CustomerRecord record = dsl.newRecord(Tables.CUSTOMER);
         record.from(customer);
-        dsl.executeUpdate(record);
-        return record.into(Customer.class);
+        record.changed(Tables.CUSTOMER.VERSION, false);
+        return record;
     }
 
-    public void delete(String customerCode) {
-        dsl.deleteFrom(Tables.CUSTOMER)
+    @CacheEvict(cacheNames = "customers", key = "#customerCode")
+    public boolean delete(String customerCode) {
+        int deleted = QueryTags.tagged("customers.delete", () -> dsl.deleteFrom(Tables.CUSTOMER)
                 .where(Tables.CUSTOMER.CUSTOMER_CODE.eq(customerCode))
-                .execute();
+                .execute());
+        if (deleted > 0) {
+            events.publishEvent(new TableChangeEvent(Tables.CUSTOMER.getName(), customerCode, Change.DELETE));
+        }
+        return deleted > 0;
     }
 }
@@ -0,0 +1,13 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were written and why the others were rejected.
+ * {@code row} numbers are 1-based positions in the request body.
+ */
+public record ImportResult(int imported, List<RowError> errors) {
+
+    public record RowError(int row, String key, String message) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+/**
+ * One recommended index: {@code definition} is the part after the table name, {@code ddl} the full statement.
+ */
+public record IndexAdvice(String table, String name, String definition, String ddl, String reason,
+                          long observations, double planCost) {
+}
@@ -0,0 +1,416 @@
+package com.example.demo.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jooqdata.Tables;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.OrderField;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Index recommendations derived from the listing requests actually served. Each request is reduced to its
+ * shape (which columns are compared by equality, range or substring, and the sort keys); shapes seen at least
+ * {@code demo.index-advisor.min-observations} times have a sample query EXPLAINed, and where that plan still
+ * scans the table or sorts, an index is proposed:
+ * <ul>
+ *     <li>a btree on the equality columns followed by the sort keys (or the range column when unsorted), so
+ *     the page comes straight off the index;</li>
+ *     <li>a partial index instead of a leading column when one value of a low-cardinality filter (currency,
+ *     VAT rate, flags) accounts for most of the requests;</li>
+ *     <li>a trigram GIN index for substring filters.</li>
+ * </ul>
+ * Indexes already present (same leading columns, or same name) are left out. Observing a request only
+ * compares column names; at most {@code demo.index-advisor.max-shapes} shapes are kept, the rarely seen ones
+ * making way for new ones. With
+ * {@code demo.index-advisor.apply=true} the advice can be applied with CREATE INDEX CONCURRENTLY, in the
+ * background.
+ */
+@Component
+public class IndexAdvisor {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private enum Kind {
+        EQUALS, LOW_CARDINALITY, RANGE, CONTAINS
+    }
+
+    private record FilterColumn(Field<?> field, Kind kind) {
+    }
+
+    private static final Map<String, Map<String, FilterColumn>> FILTERS = Map.of(
+            Tables.LOT.getName(), Map.of(
+                    "lotName", new FilterColumn(Tables.LOT.LOT_NAME, Kind.CONTAINS),
+                    "customerCode", new FilterColumn(Tables.LOT.CUSTOMER_CODE, Kind.EQUALS),
+                    "minPrice", new FilterColumn(Tables.LOT.PRICE, Kind.RANGE),
+                    "maxPrice", new FilterColumn(Tables.LOT.PRICE, Kind.RANGE),
+                    "currencyCode", new FilterColumn(Tables.LOT.CURRENCY_CODE, Kind.LOW_CARDINALITY),
+                    "ndsRate", new FilterColumn(Tables.LOT.NDS_RATE, Kind.LOW_CARDINALITY),
+                    "placeDelivery", new FilterColumn(Tables.LOT.PLACE_DELIVERY, Kind.EQUALS)),
+            Tables.CUSTOMER.getName(), Map.of(
+                    "customerCode", new FilterColumn(Tables.CUSTOMER.CUSTOMER_CODE, Kind.CONTAINS),
+                    "name", new FilterColumn(Tables.CUSTOMER.CUSTOMER_NAME, Kind.CONTAINS),
+                    "inn", new FilterColumn(Tables.CUSTOMER.CUSTOMER_INN, Kind.EQUALS),
+                    "isOrganization", new FilterColumn(Tables.CUSTOMER.IS_ORGANIZATION, Kind.LOW_CARDINALITY),
+                    "isPerson", new FilterColumn(Tables.CUSTOMER.IS_PERSON, Kind.LOW_CARDINALITY),
+                    "customerKpp", new FilterColumn(Tables.CUSTOMER.CUSTOMER_KPP, Kind.EQUALS),
+                    "customerLegalAddress", new FilterColumn(Tables.CUSTOMER.CUSTOMER_LEGAL_ADDRESS, Kind.CONTAINS),
+                    "customerPostalAddress", new FilterColumn(Tables.CUSTOMER.CUSTOMER_POSTAL_ADDRESS, Kind.CONTAINS),
+                    "customerEmail", new FilterColumn(Tables.CUSTOMER.CUSTOMER_EMAIL, Kind.CONTAINS),
+                    "customerCodeMain", new FilterColumn(Tables.CUSTOMER.CUSTOMER_CODE_MAIN, Kind.CONTAINS)));
+
+    // distinct low-cardinality value combinations kept per shape; anything beyond is free text, not a category
+    private static final int MAX_VALUES = 32;
+
+    /**
+     * Columns as they appear in an index definition: {@code equality} and {@code lowCardinality} are compared by
+     * equality, {@code keys} are the sort keys ({@code "price DESC"}).
+     */
+    private record Shape(Table<?> table, List<String> equality, List<String> lowCardinality, String range,
+                         List<String> contains, List<String> keys) {
+    }
+
+    private static final class Observation {
+        final LongAdder count = new LongAdder();
+        // low-cardinality column -> value, rendered into a predicate only when advising
+        final Map<SortedMap<String, Object>, LongAdder> values = new ConcurrentHashMap<>();
+        volatile Condition sample;
+        volatile List<OrderField<?>> sampleOrder;
+    }
+
+    private record Plan(boolean scansTable, boolean sorts, double cost) {
+    }
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${demo.index-advisor.min-observations:50}")
+    private long minObservations;
+
+    @Value("${demo.index-advisor.dominant-share:0.8}")
+    private double dominantShare;
+
+    @Value("${demo.index-advisor.apply:false}")
+    private boolean applyEnabled;
+
+    @Value("${demo.index-advisor.max-shapes:1000}")
+    private long maxShapes;
+
+    private Cache<Shape, Observation> observations;
+
+    private final AtomicReference<IndexBuild> build = new AtomicReference<>(IndexBuild.IDLE);
+
+    @PostConstruct
+    void init() {
+        observations = Caffeine.newBuilder()
+                .maximumSize(maxShapes)
+                .build();
+    }
+
+    /**
+     * Records one listing request. {@code filters} are the request's filter names alternating with their values.
+     */
+    public void observe(Table<?> table, Condition condition, Sort sort, Map<String, Field<?>> sortFields,
+                        Object... filters) {
+        Map<String, FilterColumn> columns = FILTERS.get(table.getName());
+        TreeSet<String> equality = new TreeSet<>();
+        TreeSet<String> lowCardinality = new TreeSet<>();
+        TreeSet<String> contains = new TreeSet<>();
+        SortedMap<String, Object> values = new TreeMap<>();
+        String range = null;
+        for (int i = 0; i < filters.length; i += 2) {
+            Object value = filters[i + 1];
+            FilterColumn column = columns.get((String) filters[i]);
+            if (column == null || value == null || value instanceof String s && s.isBlank()) {
+                continue;
+            }
+            String name = column.field().getName();
+            switch (column.kind()) {
+                case EQUALS -> equality.add(name);
+                case RANGE -> range = name;
+                case CONTAINS -> contains.add(name);
+                case LOW_CARDINALITY -> {
+                    lowCardinality.add(name);
+                    values.put(name, value);
+                }
+            }
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<OrderField<?>> order = new ArrayList<>();
+        List<Field<?>> sorted = new ArrayList<>();
+        for (Sort.Order o : sort) {
+            Field<?> field = sortFields.get(o.getProperty());
+            // a repeated key does not change the order, as in the query
+            if (field != null && !sorted.contains(field)) {
+                sorted.add(field);
+                keys.add(field.getName() + (o.isAscending() ? "" : " DESC"));
+                order.add(o.isAscending() ? field.asc() : field.desc());
+            }
+        }
+
+        Shape shape = new Shape(table, List.copyOf(equality), List.copyOf(lowCardinality), range,
+                List.copyOf(contains), List.copyOf(keys));
+        if (shape.equality().isEmpty() && shape.lowCardinality().isEmpty() && range == null
+                && shape.contains().isEmpty() && keys.isEmpty()) {
+            // an unfiltered, unsorted page is served by a plain scan whatever the indexes
+            return;
+        }
+        Observation observation = observations.get(shape, s -> new Observation());
+        observation.count.increment();
+        if (!values.isEmpty()) {
+            LongAdder counter = observation.values.get(values);
+            if (counter == null && observation.values.size() < MAX_VALUES) {
+                counter = observation.values.computeIfAbsent(values, v -> new LongAdder());
+            }
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+        observation.sample = condition;
+        observation.sampleOrder = order;
+    }
+
+    public List<IndexAdvice> advise() {
+        Map<String, List<String>> existing = new HashMap<>();
+        Map<String, IndexAdvice> advice = new LinkedHashMap<>();
+
+        List<Map.Entry<Shape, Observation>> shapes = new ArrayList<>(observations.asMap().entrySet());
+        shapes.sort(Comparator.comparingLong((Map.Entry<Shape, Observation> e) -> e.getValue().count.sum()).reversed());
+        for (Map.Entry<Shape, Observation> entry : shapes) {
+            Shape shape = entry.getKey();
+            Observation observation = entry.getValue();
+            long count = observation.count.sum();
+            if (count < minObservations) {
+                continue;
+            }
+            Plan plan = explain(shape.table(), observation);
+            if (!plan.scansTable() && !plan.sorts()) {
+                continue;
+            }
+            String table = shape.table().getName();
+            List<String> indexes = existing.computeIfAbsent(table, this::existingIndexes);
+            String reason = (plan.scansTable() ? "seq scan" : "sort") + " at cost " + Math.round(plan.cost())
+                    + " for " + describe(shape);
+
+            for (String column : shape.contains()) {
+                String definition = "USING gin (" + column + " gin_trgm_ops)";
+                if (indexes.stream().noneMatch(def -> def.contains(definition))) {
+                    add(advice, shape.table(), List.of(column, "trgm"), definition, reason, count, plan);
+                }
+            }
+
+            List<String> columns = new ArrayList<>(shape.equality());
+            String predicate = dominant(observation, count);
+            if (predicate == null) {
+                columns.addAll(shape.lowCardinality());
+            }
+            if (!shape.keys().isEmpty()) {
+                for (String key : shape.keys()) {
+                    // a sort key already pinned by an equality filter needs no second entry
+                    if (!columns.contains(key.split(" ")[0])) {
+                        columns.add(key);
+                    }
+                }
+            } else if (shape.range() != null) {
+                columns.add(shape.range());
+            }
+            if (columns.isEmpty()) {
+                continue;
+            }
+            String list = String.join(", ", columns);
+            String definition = "USING btree (" + list + ")" + (predicate == null ? "" : " WHERE " + predicate);
+            boolean covered = predicate == null
+                    && indexes.stream().anyMatch(def -> def.contains("USING btree (" + list) && !def.contains(" WHERE "));
+            if (!covered) {
+                List<String> nameParts = new ArrayList<>(columns);
+                if (predicate != null) {
+                    nameParts.add("p" + hash(predicate));
+                }
+                add(advice, shape.table(), nameParts, definition, reason, count, plan);
+            }
+        }
+
+        // a btree whose columns lead another proposed btree with the same predicate adds nothing
+        List<IndexAdvice> result = new ArrayList<>(advice.values());
+        result.removeIf(a -> result.stream().anyMatch(b -> b != a && b.table().equals(a.table())
+                && prefixOf(a.definition(), b.definition())));
+        return result;
+    }
+
+    public boolean applyEnabled() {
+        return applyEnabled;
+    }
+
+    /**
+     * Starts creating the advised indexes one by one on a background thread, whose progress {@link #build()}
+     * reports. CONCURRENTLY keeps the tables writable meanwhile but can take minutes on a large table; it
+     * cannot run inside a transaction, which is why this goes through the DSLContext directly. An index
+     * whose build fails is left INVALID by Postgres and has to be dropped before it is advised again.
+     *
+     * @return the started build, or empty while an earlier one is still running
+     */
+    public Optional<IndexBuild> apply() {
+        if (!applyEnabled) {
+            throw new IllegalStateException("demo.index-advisor.apply is off");
+        }
+        IndexBuild previous = build.get();
+        if (previous.running()) {
+            return Optional.empty();
+        }
+        IndexBuild started = IndexBuild.started(advise());
+        if (!build.compareAndSet(previous, started)) {
+            return Optional.empty();
+        }
+        Thread.ofPlatform().name("index-advisor").daemon().start(() -> create(started));
+        return Optional.of(started);
+    }
+
+    public IndexBuild build() {
+        return build.get();
+    }
+
+    private void create(IndexBuild started) {
+        IndexBuild current = started;
+        List<String> created = new ArrayList<>();
+        try {
+            for (IndexAdvice advice : started.advice()) {
+                dsl.execute(advice.ddl());
+                created.add(advice.name());
+                current = current.created(created);
+                build.set(current);
+            }
+            build.set(current.finished(null));
+        } catch (RuntimeException e) {
+            log.error("Creating advised indexes failed after {}", created, e);
+            build.set(current.finished(String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Plan explain(Table<?> table, Observation observation) {
+        String json = dsl.resultQuery("explain (format json) {0}", dsl.selectFrom(table)
+                        .where(observation.sample)
+                        .orderBy(observation.sampleOrder)
+                        .limit(20))
+                .fetchOne(0, String.class);
+        try {
+            JsonNode root = objectMapper.readTree(json).get(0).get("Plan");
+            boolean[] found = new boolean[2];
+            walk(root, table.getName(), found);
+            return new Plan(found[0], found[1], root.get("Total Cost").asDouble());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read plan", e);
+        }
+    }
+
+    private static void walk(JsonNode node, String table, boolean[] found) {
+        String type = node.path("Node Type").asText();
+        if (type.equals("Seq Scan") && table.equals(node.path("Relation Name").asText())) {
+            found[0] = true;
+        }
+        if (type.equals("Sort") || type.equals("Incremental Sort")) {
+            found[1] = true;
+        }
+        for (JsonNode child : node.path("Plans")) {
+            walk(child, table, found);
+        }
+    }
+
+    private List<String> existingIndexes(String table) {
+        return dsl.resultQuery("select indexdef from pg_indexes where schemaname = {0} and tablename = {1}",
+                        DSL.val(Tables.LOT.getSchema().getName()), DSL.val(table))
+                .fetch(0, String.class);
+    }
+
+    private String dominant(Observation observation, long count) {
+        return observation.values.entrySet().stream()
+                .filter(e -> e.getValue().sum() >= dominantShare * count)
+                .map(e -> predicate(e.getKey()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String predicate(SortedMap<String, Object> values) {
+        List<Condition> conditions = new ArrayList<>();
+        values.forEach((name, value) -> conditions.add(DSL.field(DSL.name(name)).eq(DSL.inline(value))));
+        return dsl.renderInlined(DSL.and(conditions));
+    }
+
+    private void add(Map<String, IndexAdvice> advice, Table<?> table, List<String> nameParts, String definition,
+                     String reason, long count, Plan plan) {
+        String name = indexName(table.getName(), nameParts);
+        String qualified = table.getSchema().getName() + "." + table.getName();
+        String ddl = "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + qualified + " " + definition;
+        advice.merge(name, new IndexAdvice(table.getName(), name, definition, ddl, reason, count, plan.cost()),
+                (a, b) -> new IndexAdvice(a.table(), a.name(), a.definition(), a.ddl(), a.reason(),
+                        a.observations() + b.observations(), Math.max(a.planCost(), b.planCost())));
+    }
+
+    private static boolean prefixOf(String shorter, String longer) {
+        if (!shorter.startsWith("USING btree (") || !longer.startsWith("USING btree (")) {
+            return false;
+        }
+        String a = shorter.substring(0, shorter.indexOf(')'));
+        String b = longer.substring(0, longer.indexOf(')'));
+        String wa = shorter.substring(shorter.indexOf(')') + 1);
+        String wb = longer.substring(longer.indexOf(')') + 1);
+        return wa.equals(wb) && b.length() > a.length() && b.startsWith(a + ", ");
+    }
+
+    private static String indexName(String table, List<String> parts) {
+        String name = table + "_adv_" + String.join("_", parts).replace(" DESC", "_desc") + "_idx";
+        // Postgres truncates identifiers at 63 bytes
+        return name.length() <= 63 ? name : name.substring(0, 50) + "_" + hash(name) + "_idx";
+    }
+
+    private static String hash(String value) {
+        CRC32 crc = new CRC32();
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static String describe(Shape shape) {
+        List<String> parts = new ArrayList<>();
+        shape.equality().forEach(c -> parts.add(c + " ="));
+        shape.lowCardinality().forEach(c -> parts.add(c + " ="));
+        if (shape.range() != null) {
+            parts.add(shape.range() + " range");
+        }
+        shape.contains().forEach(c -> parts.add(c + " ILIKE"));
+        if (!shape.keys().isEmpty()) {
+            parts.add("ORDER BY " + String.join(", ", shape.keys()));
+        }
+        return String.join(", ", parts);
+    }
+}
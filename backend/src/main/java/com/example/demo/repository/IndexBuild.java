@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of applying index advice in the background: {@code advice} is what is being created, in order,
+ * {@code created} the names of the indexes done so far.
+ */
+public record IndexBuild(State state, Instant startedAt, Instant finishedAt, List<IndexAdvice> advice,
+                         List<String> created, String failure) {
+
+    public enum State {
+        IDLE, RUNNING, DONE, FAILED
+    }
+
+    static final IndexBuild IDLE = new IndexBuild(State.IDLE, null, null, List.of(), List.of(), null);
+
+    static IndexBuild started(List<IndexAdvice> advice) {
+        return new IndexBuild(State.RUNNING, Instant.now(), null, List.copyOf(advice), List.of(), null);
+    }
+
+    IndexBuild created(List<String> created) {
+        return new IndexBuild(state, startedAt, null, advice, List.copyOf(created), null);
+    }
+
+    IndexBuild finished(String failure) {
+        return new IndexBuild(failure == null ? State.DONE : State.FAILED, startedAt, Instant.now(), advice,
+                created, failure);
+    }
+
+    public boolean running() {
+        return state == State.RUNNING;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A list page as served over HTTP: its ETag comes with the fetched rows, the JSON is only produced when
+ * asked for, so a request that turns out to be not modified never serializes rows. The gzipped JSON is
+ * likewise produced once and kept with the page, so a cached page is not compressed again per response.
+ */
+public final class JsonPage {
+
+    private final String etag;
+    private Supplier<JsonPage> loader;
+    private byte[] json;
+    private byte[] gzip;
+
+    JsonPage(String etag, byte[] json) {
+        this.etag = etag;
+        this.json = json;
+    }
+
+    JsonPage(String etag, byte[] json, byte[] gzip) {
+        this.etag = etag;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * A page whose bytes are taken from the page {@code loader} produces on first use.
+     */
+    JsonPage(String etag, Supplier<JsonPage> loader) {
+        this.etag = etag;
+        this.loader = loader;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public synchronized byte[] json() {
+        if (json == null) {
+            JsonPage loaded = loader.get();
+            json = loaded.json();
+            gzip = loaded.gzip;
+            loader = null;
+        }
+        return json;
+    }
+
+    public synchronized byte[] gzip() {
+        if (gzip == null) {
+            gzip = gzip(json());
+        }
+        return gzip;
+    }
+
+    static byte[] gzip(byte[] plain) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 4);
+        try (GZIPOutputStream compressor = new GZIPOutputStream(out)) {
+            compressor.write(plain);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.demo.repository;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.OrderField;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import org.jooq.RowN;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sort keys of a seek (keyset) query plus the opaque cursor encoding of a row's position in that order.
+ * Nulls follow the Postgres defaults (last for ascending, first for descending keys), so the ordering is
+ * the same one the offset queries use. The tiebreaker runs the same way as the last sort key, so a
+ * single-key sort in either direction can be read off a {@code (key, tiebreaker)} index.
+ */
+final class Keyset {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private final List<Field<?>> fields;
+    private final List<Boolean> ascending;
+
+    private Keyset(List<Field<?>> fields, List<Boolean> ascending) {
+        this.fields = fields;
+        this.ascending = ascending;
+    }
+
+    static Keyset of(Sort sort, Map<String, Field<?>> sortFields, Field<?> tiebreaker) {
+        List<Field<?>> fields = new ArrayList<>();
+        List<Boolean> ascending = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Field<?> field = sortFields.get(order.getProperty());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown sort property: " + order.getProperty());
+            }
+            if (!fields.contains(field)) {
+                fields.add(field);
+                ascending.add(order.isAscending());
+            }
+        }
+        if (!fields.contains(tiebreaker)) {
+            fields.add(tiebreaker);
+            ascending.add(ascending.isEmpty() || ascending.get(ascending.size() - 1));
+        }
+        return new Keyset(fields, ascending);
+    }
+
+    /**
+     * Fetches the page following {@code after}, or the page preceding {@code before} when that is given
+     * instead. Either cursor may be empty to start from the first (or last) row.
+     */
+    <R extends Record, T> KeysetPage<T> fetch(DSLContext dsl, Table<R> table, Condition condition,
+                                              String after, String before, int size, Class<T> type) {
+        return page(query(dsl, table, condition, after, before, size).fetch(), after, before, size, type);
+    }
+
+    /**
+     * The query behind {@link #fetch}, for callers that execute it themselves (e.g. over R2DBC). Its rows
+     * are turned into a page with {@link #page}.
+     */
+    <R extends Record> ResultQuery<R> query(DSLContext dsl, Table<R> table, Condition condition,
+                                            String after, String before, int size) {
+        boolean backward = before != null;
+        Keyset order = backward ? reversed() : this;
+        String cursor = backward ? before : after;
+        if (cursor != null && !cursor.isEmpty()) {
+            condition = condition.and(order.after(cursor));
+        }
+        return dsl.selectFrom(table)
+                .where(condition)
+                .orderBy(order.orderBy())
+                .limit(size + 1);
+    }
+
+    <R extends Record, T> KeysetPage<T> page(List<R> fetched, String after, String before, int size,
+                                             Class<T> type) {
+        boolean backward = before != null;
+        String cursor = backward ? before : after;
+        boolean positioned = cursor != null && !cursor.isEmpty();
+
+        List<R> records = new ArrayList<>(fetched);
+        boolean more = records.size() > size;
+        if (more) {
+            records = records.subList(0, size);
+        }
+        if (backward) {
+            Collections.reverse(records);
+        }
+
+        String next = null;
+        String previous = null;
+        if (!records.isEmpty()) {
+            R first = records.get(0);
+            R last = records.get(records.size() - 1);
+            next = (backward ? positioned : more) ? cursor(last) : null;
+            previous = (backward ? more : positioned) ? cursor(first) : null;
+        }
+
+        List<T> content = new ArrayList<>(records.size());
+        for (R record : records) {
+            content.add(record.into(type));
+        }
+        return new KeysetPage<>(content, size, next, previous);
+    }
+
+    List<OrderField<?>> orderBy() {
+        List<OrderField<?>> orderBy = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            Field<?> field = fields.get(i);
+            orderBy.add(ascending.get(i) ? field.asc() : field.desc());
+        }
+        return orderBy;
+    }
+
+    /**
+     * Rows strictly after the cursor position in this order. Equivalent to what {@code seek()} renders,
+     * except that null keys are compared by their sort position instead of falling out of the comparison.
+     */
+    Condition after(String cursor) {
+        Object[] values = decode(cursor);
+        if (uniform()) {
+            Condition after = seek(values, 0);
+            return after == null ? DSL.falseCondition() : after;
+        }
+        List<Condition> branches = new ArrayList<>();
+        Condition prefix = DSL.noCondition();
+        for (int i = 0; i < fields.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Field<Object> field = (Field<Object>) fields.get(i);
+            Object value = values[i];
+            Condition beyond = beyond(field, ascending.get(i), value);
+            if (beyond != null) {
+                branches.add(prefix.and(beyond));
+            }
+            prefix = prefix.and(value == null ? field.isNull() : field.eq(value));
+        }
+        return branches.isEmpty() ? DSL.falseCondition() : DSL.or(branches);
+    }
+
+    private boolean uniform() {
+        return !ascending.contains(!ascending.get(0));
+    }
+
+    /**
+     * Rows after {@code values} on the keys from {@code from} on, for keys that all run the same way. The
+     * non-null cursor values up to the first null one are compared as a row, {@code (a, b) > (?, ?)}, and
+     * the nulls that comparison drops are added as branches of their own, e.g. {@code (a, pk) > (?, ?) OR
+     * a IS NULL} for a nullable ascending key and {@code a IS NULL AND pk > ?} once the cursor is on a null.
+     * Every branch is an equality prefix followed by a range, so an index on the keys can seek to the
+     * cursor. Null when no row is after it.
+     */
+    private Condition seek(Object[] values, int from) {
+        boolean asc = ascending.get(0);
+        int nulls = from;
+        while (nulls < fields.size() && values[nulls] != null) {
+            nulls++;
+        }
+        List<Condition> branches = new ArrayList<>();
+        if (nulls > from) {
+            branches.add(compare(values, from, nulls, asc));
+            for (int i = from; asc && i < nulls; i++) {
+                // sorts after every value, but a null makes the row comparison unknown
+                if (fields.get(i).getDataType().nullable()) {
+                    branches.add(equal(values, from, i).and(fields.get(i).isNull()));
+                }
+            }
+        }
+        if (nulls < fields.size()) {
+            Condition prefix = equal(values, from, nulls);
+            if (!asc) {
+                branches.add(prefix.and(fields.get(nulls).isNotNull()));
+            }
+            Condition rest = seek(values, nulls + 1);
+            if (rest != null) {
+                branches.add(prefix.and(fields.get(nulls).isNull()).and(rest));
+            }
+        }
+        if (branches.isEmpty()) {
+            return null;
+        }
+        return branches.size() == 1 ? branches.get(0) : DSL.or(branches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Condition compare(Object[] values, int from, int to, boolean asc) {
+        if (to - from == 1) {
+            Field<Object> field = (Field<Object>) fields.get(from);
+            return asc ? field.gt(values[from]) : field.lt(values[from]);
+        }
+        RowN keys = DSL.row(fields.subList(from, to).toArray(new Field<?>[0]));
+        Object[] cursor = Arrays.copyOfRange(values, from, to);
+        return asc ? keys.gt(cursor) : keys.lt(cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Condition equal(Object[] values, int from, int to) {
+        Condition equal = DSL.noCondition();
+        for (int i = from; i < to; i++) {
+            equal = equal.and(((Field<Object>) fields.get(i)).eq(values[i]));
+        }
+        return equal;
+    }
+
+    private Keyset reversed() {
+        List<Boolean> flipped = new ArrayList<>(ascending.size());
+        for (Boolean asc : ascending) {
+            flipped.add(!asc);
+        }
+        return new Keyset(fields, flipped);
+    }
+
+    String cursor(Record record) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            values[i] = record.get(fields.get(i));
+        }
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(values));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode cursor", e);
+        }
+    }
+
+    private static Condition beyond(Field<Object> field, boolean ascending, Object value) {
+        if (value == null) {
+            return ascending ? null : field.isNotNull();
+        }
+        if (!ascending) {
+            return field.lt(value);
+        }
+        return field.getDataType().nullable() ? field.gt(value).or(field.isNull()) : field.gt(value);
+    }
+
+    private Object[] decode(String cursor) {
+        try {
+            JsonNode node = MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+            if (node == null || !node.isArray() || node.size() != fields.size()) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            Object[] values = new Object[fields.size()];
+            for (int i = 0; i < fields.size(); i++) {
+                values[i] = MAPPER.treeToValue(node.get(i), fields.get(i).getType());
+            }
+            return values;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+public record KeysetPage<T>(List<T> content, int size, String next, String previous) {
+}
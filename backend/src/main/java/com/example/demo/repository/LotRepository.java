@@ -1,20 +1,33 @@
 package com.example.demo.repository;
 
+import com.example.demo.Bulkheads;
+import com.example.demo.Bulkheads.Lane;
+import com.example.demo.repository.TableChangeEvent.Change;
 import jooqdata.Tables;
 import jooqdata.tables.pojos.Lot;
 import jooqdata.tables.records.LotRecord;
 import org.jooq.*;
+import org.jooq.Record;
 import org.jooq.impl.DSL;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Repository
@@ -23,7 +36,28 @@ public class LotRepository {
     @Autowired
     private DSLContext dsl;
 
-    private static final Map<String, Field<?>> SORT_FIELDS = Map.of(
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private IndexAdvisor indexAdvisor;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Value("${demo.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    static final Map<String, Field<?>> SORT_FIELDS = Map.of(
             "lotName", Tables.LOT.LOT_NAME,
             "customerCode", Tables.LOT.CUSTOMER_CODE,
             "price", Tables.LOT.PRICE,
@@ -31,9 +65,96 @@ public class LotRepository {
             "dateDelivery", Tables.LOT.DATE_DELIVERY
     );
 
-    public Page<Lot> findAll(Pageable pageable, String lotName, String customerCode,
-                             Double minPrice, Double maxPrice, String currency, String ndsRate,
-                             String placeDelivery) {
+    // true when INSERT ... ON CONFLICT inserted the row rather than updating it
+    private static final Field<Boolean> INSERTED = DSL.field("xmax = 0", Boolean.class).as("inserted");
+
+    /**
+     * The page of matching lots as JSON, with its total obtained as {@code count} says, answered from the
+     * {@link PageCache} until the next write to the table.
+     */
+    public JsonPage findAllJson(Pageable pageable, CountMode count, String lotName, String customerCode,
+                                Double minPrice, Double maxPrice, String currency, String ndsRate,
+                                String placeDelivery) {
+        Condition condition = condition(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery);
+        Object[] filters = filters(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery);
+        // before the lookup, so that the requests the cache answers count as much as the ones it does not
+        indexAdvisor.observe(Tables.LOT, condition, pageable.getSort(), SORT_FIELDS, filters);
+        return pageCache.page(Tables.LOT, condition, pageable, count,
+                () -> fetch(condition, filters, pageable, count));
+    }
+
+    private Versioned<Supplier<Slice<Lot>>> fetch(Condition condition, Object[] filters, Pageable pageable,
+                                                  CountMode count) {
+        QueryTags tags = tags("lots.findAll", pageable.getSort(), filters);
+        return QueryTags.tagged(tags, () -> Paging.fetch(dsl, countCache, Tables.LOT, Tables.LOT.LOT_NAME,
+                condition, orderFields(pageable.getSort()), pageable, count, Lot.class));
+    }
+
+    /**
+     * Streams every matching row to {@code writer} through a server-side cursor, {@code fetchSize} rows per
+     * round trip, so memory use does not depend on the size of the result.
+     */
+    public void export(Sort sort, String lotName, String customerCode, Double minPrice, Double maxPrice,
+                       String currency, String ndsRate, String placeDelivery, RowWriter<LotRecord> writer) {
+        Condition condition = condition(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery);
+        List<OrderField<?>> orderFields = orderFields(sort);
+        QueryTags tags = tags("lots.export", sort,
+                filters(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery));
+
+        bulkheads.acquire(Lane.EXPORT);
+        try {
+            // Postgres only honours the fetch size inside a transaction; otherwise the driver buffers everything
+            QueryTags.tagged(tags, () -> dsl.transaction(configuration -> {
+                try (Cursor<LotRecord> cursor = DSL.using(configuration)
+                        .selectFrom(Tables.LOT)
+                        .where(condition)
+                        .orderBy(orderFields)
+                        .fetchSize(exportFetchSize)
+                        .fetchLazy()) {
+                    for (LotRecord record : cursor) {
+                        writer.write(record);
+                    }
+                }
+            }));
+        } finally {
+            bulkheads.release(Lane.EXPORT);
+        }
+    }
+
+    static List<OrderField<?>> orderFields(Sort sort) {
+        return sort.stream()
+                .map(order -> {
+                    Field<?> field = SORT_FIELDS.get(order.getProperty());
+                    return order.isAscending() ? field.asc() : field.desc();
+                })
+                .collect(Collectors.toList());
+    }
+
+    public KeysetPage<Lot> findAll(String after, String before, Pageable pageable, String lotName,
+                                   String customerCode, Double minPrice, Double maxPrice, String currency,
+                                   String ndsRate, String placeDelivery) {
+        Keyset keyset = Keyset.of(pageable.getSort(), SORT_FIELDS, Tables.LOT.LOT_NAME);
+        Condition condition = condition(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery);
+        Object[] filters = filters(lotName, customerCode, minPrice, maxPrice, currency, ndsRate, placeDelivery);
+        indexAdvisor.observe(Tables.LOT, condition, pageable.getSort(), SORT_FIELDS, filters);
+        QueryTags tags = tags("lots.findAllSeek", pageable.getSort(), filters);
+        return QueryTags.tagged(tags, () -> keyset.fetch(dsl, Tables.LOT, condition, after, before,
+                pageable.getPageSize(), Lot.class));
+    }
+
+    // request filter names alternating with their values
+    private static Object[] filters(String lotName, String customerCode, Double minPrice, Double maxPrice,
+                                    String currency, String ndsRate, String placeDelivery) {
+        return new Object[] {"lotName", lotName, "customerCode", customerCode, "minPrice", minPrice,
+                "maxPrice", maxPrice, "currencyCode", currency, "ndsRate", ndsRate, "placeDelivery", placeDelivery};
+    }
+
+    private static QueryTags tags(String method, Sort sort, Object[] filters) {
+        return new QueryTags(method, QueryTags.filters(filters), QueryTags.sort(sort, SORT_FIELDS));
+    }
+
+    static Condition condition(String lotName, String customerCode, Double minPrice, Double maxPrice,
+                               String currency, String ndsRate, String placeDelivery) {
         Condition condition = DSL.noCondition();
 
         if (lotName != null && !lotName.isBlank()) {
@@ -58,51 +179,129 @@ public class LotRepository {
             condition = condition.and(Tables.LOT.PLACE_DELIVERY.eq(placeDelivery));
         }
 
-        List<OrderField<?>> orderFields = pageable.getSort().stream()
-                .map(order -> {
-                    Field<?> field = SORT_FIELDS.get(order.getProperty());
-                    return order.isAscending() ? field.asc() : field.desc();
-                })
-                .collect(Collectors.toList());
+        return condition;
+    }
 
-        List<Lot> content = dsl.selectFrom(Tables.LOT)
-                .where(condition)
-                .orderBy(orderFields)
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
-                .fetchInto(Lot.class);
+    /**
+     * The lot with the ETag of its version. Both are cached together in {@code lots}, so they always
+     * belong to the same read. A read from the replica uses the cache but does not fill it, so a lagging
+     * replica cannot put an old row in front of a client that reads its own writes from the primary.
+     */
+    @Cacheable(cacheNames = "lots", key = "#lotName", unless = "T(com.example.demo.DataSourceRoute).lagging()")
+    public Optional<Versioned<Lot>> findVersioned(String lotName) {
+        return QueryTags.tagged("lots.findVersioned", () -> dsl.selectFrom(Tables.LOT)
+                .where(Tables.LOT.LOT_NAME.eq(lotName))
+                .fetchOptional()
+                .map(record -> new Versioned<>(record.into(Lot.class), RowVersion.etag(record.getVersion()))));
+    }
 
-        int total = dsl.fetchCount(
-                dsl.selectFrom(Tables.LOT).where(condition)
-        );
+    @CacheEvict(cacheNames = "lots", key = "#lot.lotName")
+    public Lot save(Lot lot) {
+        LotRecord record = QueryTags.tagged("lots.save", () -> dsl.insertInto(Tables.LOT)
+                .set(newRow(lot))
+                .returning()
+                .fetchOne());
+        events.publishEvent(new TableChangeEvent(Tables.LOT.getName(), record.getLotName(), Change.INSERT));
+        return record.into(Lot.class);
+    }
+
+    /**
+     * Inserts the lots as one JDBC batch. If the batch fails it is rolled back and the rows are retried
+     * one by one, so the returned map (index in {@code lots} to error message) names every bad row.
+     */
+    public Map<Integer, String> insertAll(List<Lot> lots) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        try {
+            dsl.transaction(configuration -> DSL.using(configuration)
+                    .batchInsert(lots.stream().map(this::newRow).collect(Collectors.toList()))
+                    .execute());
+        } catch (RuntimeException batchError) {
+            for (int i = 0; i < lots.size(); i++) {
+                try {
+                    newRow(lots.get(i)).insert();
+                } catch (RuntimeException rowError) {
+                    failures.put(i, NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+
+        Cache cache = cacheManager.getCache("lots");
+        for (int i = 0; i < lots.size(); i++) {
+            if (!failures.containsKey(i)) {
+                String lotName = lots.get(i).getLotName();
+                if (cache != null) {
+                    cache.evict(lotName);
+                }
+                events.publishEvent(new TableChangeEvent(Tables.LOT.getName(), lotName, Change.INSERT));
+            }
+        }
+        return failures;
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    /**
+     * Overwrites the row and bumps its version. When {@code lot} carries a version the row is only
+     * written if it is still at that version; otherwise a {@link VersionConflictException} is thrown.
+     * Empty if there is no such lot.
+     */
+    @CacheEvict(cacheNames = "lots", key = "#lot.lotName")
+    public Optional<Lot> update(Lot lot) {
+        Condition condition = Tables.LOT.LOT_NAME.eq(lot.getLotName());
+        if (lot.getVersion() != null) {
+            condition = condition.and(Tables.LOT.VERSION.eq(lot.getVersion()));
+        }
+        Condition row = condition;
+        Optional<Lot> updated = QueryTags.tagged("lots.update", () -> dsl.update(Tables.LOT)
+                .set(changes(lot))
+                .set(Tables.LOT.VERSION, RowVersion.NEXT)
+                .where(row)
+                .returning()
+                .fetchOptional()
+                .map(record -> record.into(Lot.class)));
+        if (updated.isPresent()) {
+            events.publishEvent(new TableChangeEvent(Tables.LOT.getName(), lot.getLotName(), Change.UPDATE));
+        } else if (lot.getVersion() != null && dsl.fetchExists(Tables.LOT, Tables.LOT.LOT_NAME.eq(lot.getLotName()))) {
+            throw new VersionConflictException(Tables.LOT.getName(), lot.getLotName(), lot.getVersion());
+        }
+        return updated;
     }
-    public Optional<Lot> findById(String lotName) {
-        return Optional.ofNullable(
-                dsl.selectFrom(Tables.LOT)
-                        .where(Tables.LOT.LOT_NAME.eq(lotName))
-                        .fetchOneInto(Lot.class)
-        );
+
+    @CacheEvict(cacheNames = "lots", key = "#lot.lotName")
+    public Lot upsert(Lot lot) {
+        Record stored = QueryTags.tagged("lots.upsert", () -> dsl.insertInto(Tables.LOT)
+                .set(newRow(lot))
+                .onConflict(Tables.LOT.LOT_NAME)
+                .doUpdate()
+                .set(changes(lot))
+                .set(Tables.LOT.VERSION, RowVersion.NEXT)
+                .returningResult(Tables.LOT.asterisk(), INSERTED)
+                .fetchOne());
+        Change change = stored.get(INSERTED) ? Change.INSERT : Change.UPDATE;
+        events.publishEvent(new TableChangeEvent(Tables.LOT.getName(), lot.getLotName(), change));
+        return stored.into(Tables.LOT).into(Lot.class);
     }
 
-    public Lot save(Lot lot) {
+    // a new row takes the next version from the column default whatever the client sent
+    private LotRecord newRow(Lot lot) {
         LotRecord record = dsl.newRecord(Tables.LOT, lot);
-        record.store();
-        return record.into(Lot.class);
+        record.changed(Tables.LOT.VERSION, false);
+        return record;
     }
 
-    public Lot update(Lot lot) {
-        dsl.update(Tables.LOT)
-                .set(dsl.newRecord(Tables.LOT, lot))
-                .where(Tables.LOT.LOT_NAME.eq(lot.getLotName()))
-                .execute();
-        return lot;
+    // the columns a client may overwrite; the version only ever moves forward in SQL
+    private LotRecord changes(Lot lot) {
+        LotRecord record = dsl.newRecord(Tables.LOT, lot);
+        record.changed(Tables.LOT.VERSION, false);
+        return record;
     }
 
-    public void delete(String lotName) {
-        dsl.deleteFrom(Tables.LOT)
+    @CacheEvict(cacheNames = "lots", key = "#lotName")
+    public boolean delete(String lotName) {
+        int deleted = QueryTags.tagged("lots.delete", () -> dsl.deleteFrom(Tables.LOT)
                 .where(Tables.LOT.LOT_NAME.eq(lotName))
-                .execute();
+                .execute());
+        if (deleted > 0) {
+            events.publishEvent(new TableChangeEvent(Tables.LOT.getName(), lotName, Change.DELETE));
+        }
+        return deleted > 0;
     }
 }
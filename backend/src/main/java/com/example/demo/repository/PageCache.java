@@ -0,0 +1,134 @@
+package com.example.demo.repository;
+
+import com.example.demo.DataSourceRoute;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jooq.Condition;
+import org.jooq.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of list pages and their ETags, keyed by table, route, rendered condition, sort, page and
+ * count mode, so a hot page is answered with the same bytes until the table changes. A write can move any row
+ * into or out of any filter and shifts every later offset, so a {@link TableChangeEvent} drops all pages
+ * of its table.
+ *
+ * <p>Pages read from a replica may lag the write that invalidated them; {@code demo.page-cache.ttl}
+ * bounds how long such a page is served. They are kept apart from the pages read from the primary, so a
+ * client that reads its own writes from the primary is never answered with one.
+ */
+@Component
+public class PageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PageCache.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${demo.page-cache.ttl:10s}")
+    private Duration ttl;
+
+    @Value("${demo.page-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final Map<String, Pages> tables = new ConcurrentHashMap<>();
+
+    /**
+     * The cached page, or the one {@code loader} fetches with its ETag, whose content is built, serialized
+     * and compressed on first use and then cached.
+     */
+    public JsonPage page(Table<?> table, Condition condition, Pageable pageable, CountMode count,
+                         Supplier<? extends Versioned<? extends Supplier<?>>> loader) {
+        Pages pages = tables.computeIfAbsent(table.getName(), this::pages);
+        String key = DataSourceRoute.current() + "|" + condition + "|" + pageable.getSort() + "|"
+                + pageable.getOffset() + "|" + pageable.getPageSize() + "|" + count;
+
+        JsonPage cached = pages.entries.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // taken before the query so that a write anywhere after it keeps the page out of the cache
+        long generation = pages.generation.get();
+        Versioned<? extends Supplier<?>> fetched = loader.get();
+        String etag = fetched.etag();
+        return new JsonPage(etag, () -> {
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(fetched.value().get());
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (pages.generation.get() != generation) {
+                return new JsonPage(etag, json);
+            }
+            // compressed before it is cached, so that its weight covers both representations
+            JsonPage page = new JsonPage(etag, json, JsonPage.gzip(json));
+            pages.entries.put(key, page);
+            // a write that landed between the check and the put may or may not be in the page
+            if (pages.generation.get() != generation) {
+                pages.entries.invalidate(key);
+            }
+            return page;
+        });
+    }
+
+    @EventListener
+    public void onChange(TableChangeEvent event) {
+        try {
+            drop(event);
+        } catch (RuntimeException e) {
+            // logged, not thrown: the other listeners and the publishing write still have to go on
+            log.error("Dropping pages failed on {}", event, e);
+        }
+    }
+
+    private void drop(TableChangeEvent event) {
+        Pages pages = tables.get(event.table());
+        if (pages == null) {
+            return;
+        }
+        pages.generation.incrementAndGet();
+        pages.entries.invalidateAll();
+    }
+
+    private Pages pages(String table) {
+        Cache<String, JsonPage> entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxBytes)
+                .weigher((String key, JsonPage page) -> key.length() * 2 + page.json().length + page.gzip().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, entries, "pages." + table);
+        return new Pages(entries);
+    }
+
+    private static final class Pages {
+        private final Cache<String, JsonPage> entries;
+        private final AtomicLong generation = new AtomicLong();
+
+        private Pages(Cache<String, JsonPage> entries) {
+            this.entries = entries;
+        }
+    }
+}
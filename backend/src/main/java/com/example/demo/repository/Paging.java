@@ -0,0 +1,146 @@
+package com.example.demo.repository;
+
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.OrderField;
+import org.jooq.Record;
+import org.jooq.Result;
+import org.jooq.Select;
+import org.jooq.SelectField;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offset page queries for the repositories, with the total obtained according to a {@link CountMode}.
+ */
+final class Paging {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private Paging() {
+    }
+
+    /**
+     * The page with its ETag: the key and row version of every row on it, plus what decides the total (or,
+     * without a count, whether a next page exists). Row versions are read with the rows themselves. The
+     * ETag is computed from the raw records; they are only mapped to {@code type} when the page is
+     * serialized, so a request answered with 304 maps nothing.
+     */
+    static <R extends Record, T> Versioned<Supplier<Slice<T>>> fetch(DSLContext dsl, CountCache counts,
+                                                                     Table<R> table, Field<?> key,
+                                                                     Condition condition,
+                                                                     List<OrderField<?>> orderBy,
+                                                                     Pageable pageable, CountMode mode,
+                                                                     Class<T> type) {
+        switch (mode) {
+            case NONE: {
+                Result<Record> fetched = dsl.select(columns(table, RowVersion.XMIN))
+                        .from(table)
+                        .where(condition)
+                        .orderBy(orderBy)
+                        .limit(pageable.getPageSize() + 1)
+                        .offset(pageable.getOffset())
+                        .fetch();
+                boolean hasNext = fetched.size() > pageable.getPageSize();
+                List<Record> rows = hasNext ? fetched.subList(0, pageable.getPageSize()) : fetched;
+                return new Versioned<>(() -> new SliceImpl<>(content(rows, table, type), pageable, hasNext),
+                        etag(mode, hasNext, rows, key));
+            }
+            case WINDOW: {
+                Field<Integer> total = DSL.count().over().as("total_count");
+                Result<Record> rows = dsl.select(columns(table, RowVersion.XMIN, total))
+                        .from(table)
+                        .where(condition)
+                        .orderBy(orderBy)
+                        .limit(pageable.getPageSize())
+                        .offset(pageable.getOffset())
+                        .fetch();
+                long count = rows.isEmpty()
+                        ? (pageable.getOffset() == 0 ? 0 : dsl.fetchCount(table, condition))
+                        : rows.get(0).get(total);
+                return new Versioned<>(() -> new PageImpl<>(content(rows, table, type), pageable, count),
+                        etag(mode, count, rows, key));
+            }
+            case ESTIMATE: {
+                Result<Record> rows = page(dsl, table, condition, orderBy, pageable);
+                long count = estimate(dsl, table, condition);
+                return new Versioned<>(() -> new PageImpl<>(content(rows, table, type), pageable, count),
+                        etag(mode, count, rows, key));
+            }
+            default: {
+                Result<Record> rows = page(dsl, table, condition, orderBy, pageable);
+                long count = counts.count(table, condition, () -> dsl.fetchCount(table, condition));
+                return new Versioned<>(() -> new PageImpl<>(content(rows, table, type), pageable, count),
+                        etag(mode, count, rows, key));
+            }
+        }
+    }
+
+    private static Result<Record> page(DSLContext dsl, Table<?> table, Condition condition,
+                                       List<OrderField<?>> orderBy, Pageable pageable) {
+        return dsl.select(columns(table, RowVersion.XMIN))
+                .from(table)
+                .where(condition)
+                .orderBy(orderBy)
+                .limit(pageable.getPageSize())
+                .offset(pageable.getOffset())
+                .fetch();
+    }
+
+    // the generated fields, unlike table.asterisk(), leave out search_vector, which no page shows
+    private static List<SelectField<?>> columns(Table<?> table, SelectField<?>... extra) {
+        List<SelectField<?>> columns = new ArrayList<>(Arrays.asList(table.fields()));
+        columns.addAll(Arrays.asList(extra));
+        return columns;
+    }
+
+    private static <R extends Record, T> List<T> content(List<Record> rows, Table<R> table, Class<T> type) {
+        List<T> content = new ArrayList<>(rows.size());
+        for (Record row : rows) {
+            content.add(row.into(table).into(type));
+        }
+        return content;
+    }
+
+    private static String etag(CountMode mode, Object total, List<Record> rows, Field<?> key) {
+        List<Object> parts = new ArrayList<>(2 + rows.size() * 2);
+        parts.add(mode);
+        parts.add(total);
+        for (Record row : rows) {
+            parts.add(row.get(key));
+            parts.add(row.get(RowVersion.XMIN));
+        }
+        return RowVersion.etag(parts);
+    }
+
+    private static long estimate(DSLContext dsl, Table<?> table, Condition condition) {
+        if (condition.equals(DSL.noCondition())) {
+            Object reltuples = dsl.fetchValue("select reltuples::bigint from pg_class where oid = {0}::regclass",
+                    DSL.inline(table.getQualifiedName().toString()));
+            // reltuples is -1 until the table has been vacuumed or analyzed once
+            if (reltuples instanceof Number && ((Number) reltuples).longValue() >= 0) {
+                return ((Number) reltuples).longValue();
+            }
+        }
+        return explainRows(dsl, dsl.selectFrom(table).where(condition));
+    }
+
+    private static long explainRows(DSLContext dsl, Select<?> select) {
+        // the first plan line is the top node, whose row estimate is the estimate for the whole query
+        Record plan = dsl.resultQuery("explain {0}", select).fetchAny();
+        Matcher matcher = PLAN_ROWS.matcher(plan == null ? "" : String.valueOf(plan.get(0)));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.ExecuteListenerProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every jOOQ execution into {@code db.query}, tagged with the name of the calling repository method
+ * from {@link QueryTags}, and logs executions slower than {@code demo.query.slow-threshold} with their
+ * filter and sort names and their SQL. The SQL keeps its placeholders; bind values (INNs, emails,
+ * addresses) are never logged. Boot's jOOQ auto-configuration registers the provider with the application's DSLContext.
+ * The timing covers the whole execution lifecycle, including fetching (and, for lazy cursors, consuming) rows.
+ */
+@Component
+public class QueryMetrics implements ExecuteListenerProvider, ExecuteListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private static final String START = QueryMetrics.class.getName() + ".start";
+    private static final String TAGS = QueryMetrics.class.getName() + ".tags";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${demo.query.slow-threshold:500ms}")
+    private Duration slowThreshold;
+
+    @Override
+    public ExecuteListener provide() {
+        return this;
+    }
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(START, System.nanoTime());
+        ctx.data(TAGS, QueryTags.current());
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Object start = ctx.data(START);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - (Long) start;
+        QueryTags tags = (QueryTags) ctx.data(TAGS);
+
+        Timer.builder("db.query")
+                .tag("method", tags.method())
+                .tag("type", ctx.type().name().toLowerCase())
+                .tag("outcome", ctx.exception() == null ? "success" : "error")
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (elapsed > slowThreshold.toNanos()) {
+            log.warn("Slow query ({} ms) in {} [filters={}, sort={}]: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), tags.method(), tags.filters(), tags.sort(),
+                    ctx.sql());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.repository;
+
+import org.jooq.Field;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * What the queries running on this thread are for, as picked up by {@link QueryMetrics}. The method is one
+ * of {@link #METHODS}, anything else becomes {@code other}, so it can tag a timer with histograms. Filters
+ * and sort keys are reduced to their names in a fixed order, each at most once, and combinations of more
+ * than a few become {@code other}; they describe slow queries in the log.
+ */
+record QueryTags(String method, String filters, String sort) {
+
+    private static final ThreadLocal<QueryTags> CURRENT = new ThreadLocal<>();
+
+    static final Set<String> METHODS = Set.of(
+            "lots.findAll", "lots.findAllSeek", "lots.export", "lots.findVersioned",
+            "lots.save", "lots.update", "lots.upsert", "lots.delete",
+            "customers.findAll", "customers.findAllSeek", "customers.export", "customers.findVersioned",
+            "customers.save", "customers.update", "customers.upsert", "customers.delete",
+            "search", "untagged");
+
+    static final QueryTags UNTAGGED = new QueryTags("untagged", "none", "none");
+
+    QueryTags {
+        if (!METHODS.contains(method)) {
+            method = "other";
+        }
+    }
+
+    static final int MAX_FILTERS = 3;
+    static final int MAX_SORT_KEYS = 2;
+
+    static QueryTags current() {
+        QueryTags tags = CURRENT.get();
+        return tags == null ? UNTAGGED : tags;
+    }
+
+    static <T> T tagged(String method, Supplier<T> body) {
+        return tagged(new QueryTags(method, "none", "none"), body);
+    }
+
+    static <T> T tagged(QueryTags tags, Supplier<T> body) {
+        QueryTags outer = CURRENT.get();
+        CURRENT.set(tags);
+        try {
+            return body.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    static void tagged(QueryTags tags, Runnable body) {
+        tagged(tags, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * @param namesAndValues alternating filter names and request values, always in the same order; blank
+     *                       and null values are not set
+     */
+    static String filters(Object... namesAndValues) {
+        StringJoiner set = new StringJoiner("+");
+        int count = 0;
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            Object value = namesAndValues[i + 1];
+            if (value != null && !(value instanceof String s && s.isBlank())) {
+                set.add((String) namesAndValues[i]);
+                count++;
+            }
+        }
+        if (count > MAX_FILTERS) {
+            return "other";
+        }
+        return count == 0 ? "none" : set.toString();
+    }
+
+    /**
+     * The distinct sort keys with their directions, ordered by name. The first direction given for a key
+     * wins, as it does in the query.
+     */
+    static String sort(Sort sort, Map<String, Field<?>> sortFields) {
+        Map<String, String> keys = new TreeMap<>();
+        for (Sort.Order order : sort) {
+            if (!sortFields.containsKey(order.getProperty())) {
+                return "invalid";
+            }
+            keys.putIfAbsent(order.getProperty(), order.isAscending() ? "asc" : "desc");
+        }
+        if (keys.isEmpty()) {
+            return "none";
+        }
+        if (keys.size() > MAX_SORT_KEYS) {
+            return "other";
+        }
+        StringJoiner joined = new StringJoiner(",");
+        keys.forEach((property, direction) -> joined.add(property + ":" + direction));
+        return joined.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.repository;
+
+import jooqdata.Tables;
+import jooqdata.tables.pojos.Customer;
+import org.jooq.Condition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only counterpart of {@link CustomerRepository} over R2DBC.
+ */
+@Repository
+@ConditionalOnProperty(name = "demo.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerRepository {
+
+    @Autowired
+    private ReactiveDatabase database;
+
+    public Mono<KeysetPage<Customer>> findAll(
+            String after,
+            String before,
+            String customerCode,
+            Pageable pageable,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
+        return Mono.defer(() -> {
+            Keyset keyset = Keyset.of(pageable.getSort(), CustomerRepository.SORT_FIELDS,
+                    Tables.CUSTOMER.CUSTOMER_CODE);
+            Condition condition = CustomerRepository.condition(customerCode, name, inn, isOrganization, isPerson,
+                    customerKpp, customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+            int size = pageable.getPageSize();
+            return Flux.from(keyset.query(database.dsl(), Tables.CUSTOMER, condition, after, before, size))
+                    .collectList()
+                    .map(records -> keyset.page(records, after, before, size, Customer.class));
+        });
+    }
+
+    public Flux<Customer> stream(
+            Sort sort,
+            String customerCode,
+            String name,
+            String inn,
+            Boolean isOrganization,
+            Boolean isPerson,
+            String customerKpp,
+            String customerLegalAddress,
+            String customerPostalAddress,
+            String customerEmail,
+            String customerCodeMain) {
+        Condition condition = CustomerRepository.condition(customerCode, name, inn, isOrganization, isPerson,
+                customerKpp, customerLegalAddress, customerPostalAddress, customerEmail, customerCodeMain);
+        return Flux.from(database.dsl()
+                        .selectFrom(Tables.CUSTOMER)
+                        .where(condition)
+                        .orderBy(CustomerRepository.orderFields(sort)))
+                .map(record -> record.into(Customer.class));
+    }
+
+    public Mono<Customer> findById(String customerCode) {
+        return Mono.from(database.dsl()
+                        .selectFrom(Tables.CUSTOMER)
+                        .where(Tables.CUSTOMER.CUSTOMER_CODE.eq(customerCode)))
+                .map(record -> record.into(Customer.class));
+    }
+}
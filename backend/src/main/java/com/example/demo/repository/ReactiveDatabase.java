@@ -0,0 +1,62 @@
+package com.example.demo.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking jOOQ context over an R2DBC connection pool, used by the reactive read endpoints. The pool
+ * is deliberately not exposed as a {@code ConnectionFactory} bean: Boot backs off its JDBC DataSource and
+ * jOOQ auto-configuration as soon as one exists, and every write path still runs on JDBC.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.reactive.enabled", havingValue = "true")
+public class ReactiveDatabase {
+
+    @Value("${demo.reactive.url}")
+    private String url;
+
+    @Value("${demo.reactive.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${demo.reactive.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${demo.reactive.pool-size:10}")
+    private int poolSize;
+
+    private ConnectionPool pool;
+
+    private DSLContext dsl;
+
+    @PostConstruct
+    void start() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(1)
+                .maxSize(poolSize)
+                .build());
+        dsl = DSL.using(pool, SQLDialect.POSTGRES);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.dispose();
+    }
+
+    public DSLContext dsl() {
+        return dsl;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.repository;
+
+import jooqdata.Tables;
+import jooqdata.tables.pojos.Lot;
+import org.jooq.Condition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only counterpart of {@link LotRepository} over R2DBC. Same filters and keyset cursors, so pages
+ * and cursors are interchangeable between the two.
+ */
+@Repository
+@ConditionalOnProperty(name = "demo.reactive.enabled", havingValue = "true")
+public class ReactiveLotRepository {
+
+    @Autowired
+    private ReactiveDatabase database;
+
+    public Mono<KeysetPage<Lot>> findAll(String after, String before, Pageable pageable, String lotName,
+                                         String customerCode, Double minPrice, Double maxPrice, String currency,
+                                         String ndsRate, String placeDelivery) {
+        return Mono.defer(() -> {
+            Keyset keyset = Keyset.of(pageable.getSort(), LotRepository.SORT_FIELDS, Tables.LOT.LOT_NAME);
+            Condition condition = LotRepository.condition(lotName, customerCode, minPrice, maxPrice, currency,
+                    ndsRate, placeDelivery);
+            int size = pageable.getPageSize();
+            return Flux.from(keyset.query(database.dsl(), Tables.LOT, condition, after, before, size))
+                    .collectList()
+                    .map(records -> keyset.page(records, after, before, size, Lot.class));
+        });
+    }
+
+    public Flux<Lot> stream(Sort sort, String lotName, String customerCode, Double minPrice, Double maxPrice,
+                            String currency, String ndsRate, String placeDelivery) {
+        Condition condition = LotRepository.condition(lotName, customerCode, minPrice, maxPrice, currency,
+                ndsRate, placeDelivery);
+        return Flux.from(database.dsl()
+                        .selectFrom(Tables.LOT)
+                        .where(condition)
+                        .orderBy(LotRepository.orderFields(sort)))
+                .map(record -> record.into(Lot.class));
+    }
+
+    public Mono<Lot> findById(String lotName) {
+        return Mono.from(database.dsl()
+                        .selectFrom(Tables.LOT)
+                        .where(Tables.LOT.LOT_NAME.eq(lotName)))
+                .map(record -> record.into(Lot.class));
+    }
+}
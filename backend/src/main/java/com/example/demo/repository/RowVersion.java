@@ -0,0 +1,48 @@
+package com.example.demo.repository;
+
+import jooqdata.Sequences;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Row versions for HTTP validators. Single rows are identified by their {@code version} column, which
+ * If-Match compares against. Every new state of a row, including a row created again under a key that was
+ * deleted, takes its version from one sequence, so no version is ever given to two different contents.
+ * Pages use {@code xmin}: Postgres gives every row version a new one, and replicas see the same value as
+ * the primary.
+ */
+final class RowVersion {
+
+    static final Field<Long> NEXT = Sequences.ROW_VERSION.nextval();
+
+    static final Field<String> XMIN = DSL.field("xmin::text", String.class).as("row_version");
+
+    private RowVersion() {
+    }
+
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * A strong ETag for content determined by all of {@code parts}.
+     */
+    static String etag(Iterable<?> parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import java.io.IOException;
+
+/**
+ * Receives exported rows one at a time while the database cursor is open.
+ */
+@FunctionalInterface
+public interface RowWriter<R> {
+
+    void write(R row) throws IOException;
+}
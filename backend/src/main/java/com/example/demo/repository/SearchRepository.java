@@ -0,0 +1,60 @@
+package com.example.demo.repository;
+
+import jooqdata.Tables;
+import org.jooq.*;
+import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class SearchRepository {
+
+    @Autowired
+    private DSLContext dsl;
+
+    // search_vector is a generated tsvector column, excluded from the jOOQ code generation
+    private static final Field<Object> LOT_VECTOR =
+            DSL.field("{0}.search_vector", Object.class, Tables.LOT);
+    private static final Field<Object> CUSTOMER_VECTOR =
+            DSL.field("{0}.search_vector", Object.class, Tables.CUSTOMER);
+
+    public List<SearchResult> search(String text, int limit) {
+        Field<Object> query = DSL.field("websearch_to_tsquery('simple', {0})", Object.class, DSL.val(text));
+        Field<Double> rank = DSL.field(DSL.name("rank"), Double.class);
+
+        Select<Record5<String, String, String, String, Double>> lots = dsl
+                .select(
+                        DSL.inline("lot").as("type"),
+                        Tables.LOT.LOT_NAME.as("id"),
+                        Tables.LOT.LOT_NAME.as("title"),
+                        Tables.LOT.PLACE_DELIVERY.as("detail"),
+                        rank(LOT_VECTOR, query).as(rank))
+                .from(Tables.LOT)
+                .where(matches(LOT_VECTOR, query));
+
+        Select<Record5<String, String, String, String, Double>> customers = dsl
+                .select(
+                        DSL.inline("customer").as("type"),
+                        Tables.CUSTOMER.CUSTOMER_CODE.as("id"),
+                        Tables.CUSTOMER.CUSTOMER_NAME.as("title"),
+                        Tables.CUSTOMER.CUSTOMER_LEGAL_ADDRESS.as("detail"),
+                        rank(CUSTOMER_VECTOR, query).as(rank))
+                .from(Tables.CUSTOMER)
+                .where(matches(CUSTOMER_VECTOR, query));
+
+        return QueryTags.tagged("search", () -> dsl.selectFrom(lots.unionAll(customers).asTable("hits"))
+                .orderBy(rank.desc())
+                .limit(limit)
+                .fetchInto(SearchResult.class));
+    }
+
+    private static Field<Double> rank(Field<Object> vector, Field<Object> query) {
+        return DSL.field("ts_rank({0}, {1})::float8", Double.class, vector, query);
+    }
+
+    private static Condition matches(Field<Object> vector, Field<Object> query) {
+        return DSL.condition("{0} @@ {1}", vector, query);
+    }
+}
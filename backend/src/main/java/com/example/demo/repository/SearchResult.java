@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+/**
+ * One full-text search hit: {@code type} is {@code "lot"} or {@code "customer"} and {@code id} the row's
+ * primary key.
+ */
+public record SearchResult(String type, String id, String title, String detail, Double rank) {
+}
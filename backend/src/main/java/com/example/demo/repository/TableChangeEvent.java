@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+/**
+ * Published after a repository write to {@code table}; {@code key} is the primary key of the affected row.
+ * {@link ChangeListener} republishes writes made by other nodes. {@link Change#RESET} has no key and means
+ * any row of the table may have changed.
+ */
+public record TableChangeEvent(String table, String key, Change change) {
+
+    public enum Change {
+        INSERT,
+        UPDATE,
+        DELETE,
+        RESET
+    }
+}
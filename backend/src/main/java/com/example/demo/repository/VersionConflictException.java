@@ -0,0 +1,11 @@
+package com.example.demo.repository;
+
+/**
+ * Thrown by a conditional update when the row exists but is no longer at the version the caller read.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String table, String key, long expectedVersion) {
+        super(table + " " + key + " is no longer at version " + expectedVersion);
+    }
+}
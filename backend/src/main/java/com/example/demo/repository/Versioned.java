@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+/**
+ * A value together with the strong ETag of the row version it was read from.
+ */
+public record Versioned<T>(T value, String etag) {
+}
@@ -11,6 +11,7 @@ import jooqdata.tables.Customer;
 import jooqdata.tables.Lot;
 
 import org.jooq.Catalog;
+import org.jooq.Sequence;
 import org.jooq.Table;
 import org.jooq.impl.SchemaImpl;
 
@@ -51,6 +52,13 @@ public class Purchase extends SchemaImpl {
         return DefaultCatalog.DEFAULT_CATALOG;
     }
 
+    @Override
+    public final List<Sequence<?>> getSequences() {
+        return Arrays.asList(
+            Sequences.ROW_VERSION
+        );
+    }
+
     @Override
     public final List<Table<?>> getTables() {
         return Arrays.asList(
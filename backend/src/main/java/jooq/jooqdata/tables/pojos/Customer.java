@@ -25,6 +25,7 @@ public class Customer implements Serializable {
     private final String customerCodeMain;
     private final Boolean isOrganization;
     private final Boolean isPerson;
+    private final Long version;
 
     public Customer(Customer value) {
         this.customerCode = value.customerCode;
@@ -37,6 +38,7 @@ public class Customer implements Serializable {
         this.customerCodeMain = value.customerCodeMain;
         this.isOrganization = value.isOrganization;
         this.isPerson = value.isPerson;
+        this.version = value.version;
     }
 
     public Customer(
@@ -49,7 +51,8 @@ public class Customer implements Serializable {
         String customerEmail,
         String customerCodeMain,
         Boolean isOrganization,
-        Boolean isPerson
+        Boolean isPerson,
+        Long version
     ) {
         this.customerCode = customerCode;
         this.customerName = customerName;
@@ -61,6 +64,7 @@ public class Customer implements Serializable {
         this.customerCodeMain = customerCodeMain;
         this.isOrganization = isOrganization;
         this.isPerson = isPerson;
+        this.version = version;
     }
 
     /**
@@ -133,6 +137,13 @@ public class Customer implements Serializable {
         return this.isPerson;
     }
 
+    /**
+     * Getter for <code>purchase.customer.version</code>.
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -202,6 +213,12 @@ public class Customer implements Serializable {
         }
         else if (!this.isPerson.equals(other.isPerson))
             return false;
+        if (this.version == null) {
+            if (other.version != null)
+                return false;
+        }
+        else if (!this.version.equals(other.version))
+            return false;
         return true;
     }
 
@@ -219,6 +236,7 @@ public class Customer implements Serializable {
         result = prime * result + ((this.customerCodeMain == null) ? 0 : this.customerCodeMain.hashCode());
         result = prime * result + ((this.isOrganization == null) ? 0 : this.isOrganization.hashCode());
         result = prime * result + ((this.isPerson == null) ? 0 : this.isPerson.hashCode());
+        result = prime * result + ((this.version == null) ? 0 : this.version.hashCode());
         return result;
     }
 
@@ -236,6 +254,7 @@ public class Customer implements Serializable {
         sb.append(", ").append(customerCodeMain);
         sb.append(", ").append(isOrganization);
         sb.append(", ").append(isPerson);
+        sb.append(", ").append(version);
 
         sb.append(")");
         return sb.toString();
@@ -24,6 +24,7 @@ public class Lot implements Serializable {
     private final String ndsRate;
     private final String placeDelivery;
     private final LocalDateTime dateDelivery;
+    private final Long version;
 
     public Lot(Lot value) {
         this.lotName = value.lotName;
@@ -33,6 +34,7 @@ public class Lot implements Serializable {
         this.ndsRate = value.ndsRate;
         this.placeDelivery = value.placeDelivery;
         this.dateDelivery = value.dateDelivery;
+        this.version = value.version;
     }
 
     public Lot(
@@ -42,7 +44,8 @@ public class Lot implements Serializable {
         String currencyCode,
         String ndsRate,
         String placeDelivery,
-        LocalDateTime dateDelivery
+        LocalDateTime dateDelivery,
+        Long version
     ) {
         this.lotName = lotName;
         this.customerCode = customerCode;
@@ -51,6 +54,7 @@ public class Lot implements Serializable {
         this.ndsRate = ndsRate;
         this.placeDelivery = placeDelivery;
         this.dateDelivery = dateDelivery;
+        this.version = version;
     }
 
     /**
@@ -102,6 +106,13 @@ public class Lot implements Serializable {
         return this.dateDelivery;
     }
 
+    /**
+     * Getter for <code>purchase.lot.version</code>.
+     */
+    public Long getVersion() {
+        return this.version;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -153,6 +164,12 @@ public class Lot implements Serializable {
         }
         else if (!this.dateDelivery.equals(other.dateDelivery))
             return false;
+        if (this.version == null) {
+            if (other.version != null)
+                return false;
+        }
+        else if (!this.version.equals(other.version))
+            return false;
         return true;
     }
 
@@ -167,6 +184,7 @@ public class Lot implements Serializable {
         result = prime * result + ((this.ndsRate == null) ? 0 : this.ndsRate.hashCode());
         result = prime * result + ((this.placeDelivery == null) ? 0 : this.placeDelivery.hashCode());
         result = prime * result + ((this.dateDelivery == null) ? 0 : this.dateDelivery.hashCode());
+        result = prime * result + ((this.version == null) ? 0 : this.version.hashCode());
         return result;
     }
 
@@ -181,6 +199,7 @@ public class Lot implements Serializable {
         sb.append(", ").append(ndsRate);
         sb.append(", ").append(placeDelivery);
         sb.append(", ").append(dateDelivery);
+        sb.append(", ").append(version);
 
         sb.append(")");
         return sb.toString();
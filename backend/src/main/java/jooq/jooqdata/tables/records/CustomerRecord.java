@@ -8,8 +8,8 @@ import jooqdata.tables.Customer;
 
 import org.jooq.Field;
 import org.jooq.Record1;
-import org.jooq.Record10;
-import org.jooq.Row10;
+import org.jooq.Record11;
+import org.jooq.Row11;
 import org.jooq.impl.UpdatableRecordImpl;
 
 
@@ -17,7 +17,7 @@ import org.jooq.impl.UpdatableRecordImpl;
  * This class is generated by jOOQ.
  */
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implements Record10<String, String, String, String, String, String, String, String, Boolean, Boolean> {
+public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implements Record11<String, String, String, String, String, String, String, String, Boolean, Boolean, Long> {
 
     private static final long serialVersionUID = 1L;
 
@@ -171,6 +171,21 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         return (Boolean) get(9);
     }
 
+    /**
+     * Setter for <code>purchase.customer.version</code>.
+     */
+    public CustomerRecord setVersion(Long value) {
+        set(10, value);
+        return this;
+    }
+
+    /**
+     * Getter for <code>purchase.customer.version</code>.
+     */
+    public Long getVersion() {
+        return (Long) get(10);
+    }
+
     // -------------------------------------------------------------------------
     // Primary key information
     // -------------------------------------------------------------------------
@@ -181,17 +196,17 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
     }
 
     // -------------------------------------------------------------------------
-    // Record10 type implementation
+    // Record11 type implementation
     // -------------------------------------------------------------------------
 
     @Override
-    public Row10<String, String, String, String, String, String, String, String, Boolean, Boolean> fieldsRow() {
-        return (Row10) super.fieldsRow();
+    public Row11<String, String, String, String, String, String, String, String, Boolean, Boolean, Long> fieldsRow() {
+        return (Row11) super.fieldsRow();
     }
 
     @Override
-    public Row10<String, String, String, String, String, String, String, String, Boolean, Boolean> valuesRow() {
-        return (Row10) super.valuesRow();
+    public Row11<String, String, String, String, String, String, String, String, Boolean, Boolean, Long> valuesRow() {
+        return (Row11) super.valuesRow();
     }
 
     @Override
@@ -244,6 +259,11 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         return Customer.CUSTOMER.IS_PERSON;
     }
 
+    @Override
+    public Field<Long> field11() {
+        return Customer.CUSTOMER.VERSION;
+    }
+
     @Override
     public String component1() {
         return getCustomerCode();
@@ -294,6 +314,11 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         return getIsPerson();
     }
 
+    @Override
+    public Long component11() {
+        return getVersion();
+    }
+
     @Override
     public String value1() {
         return getCustomerCode();
@@ -344,6 +369,11 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         return getIsPerson();
     }
 
+    @Override
+    public Long value11() {
+        return getVersion();
+    }
+
     @Override
     public CustomerRecord value1(String value) {
         setCustomerCode(value);
@@ -405,7 +435,13 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
     }
 
     @Override
-    public CustomerRecord values(String value1, String value2, String value3, String value4, String value5, String value6, String value7, String value8, Boolean value9, Boolean value10) {
+    public CustomerRecord value11(Long value) {
+        setVersion(value);
+        return this;
+    }
+
+    @Override
+    public CustomerRecord values(String value1, String value2, String value3, String value4, String value5, String value6, String value7, String value8, Boolean value9, Boolean value10, Long value11) {
         value1(value1);
         value2(value2);
         value3(value3);
@@ -416,6 +452,7 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         value8(value8);
         value9(value9);
         value10(value10);
+        value11(value11);
         return this;
     }
 
@@ -433,7 +470,7 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
     /**
      * Create a detached, initialised CustomerRecord
      */
-    public CustomerRecord(String customerCode, String customerName, String customerInn, String customerKpp, String customerLegalAddress, String customerPostalAddress, String customerEmail, String customerCodeMain, Boolean isOrganization, Boolean isPerson) {
+    public CustomerRecord(String customerCode, String customerName, String customerInn, String customerKpp, String customerLegalAddress, String customerPostalAddress, String customerEmail, String customerCodeMain, Boolean isOrganization, Boolean isPerson, Long version) {
         super(Customer.CUSTOMER);
 
         setCustomerCode(customerCode);
@@ -446,6 +483,7 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
         setCustomerCodeMain(customerCodeMain);
         setIsOrganization(isOrganization);
         setIsPerson(isPerson);
+        setVersion(version);
     }
 
     /**
@@ -465,6 +503,7 @@ public class CustomerRecord extends UpdatableRecordImpl<CustomerRecord> implemen
             setCustomerCodeMain(value.getCustomerCodeMain());
             setIsOrganization(value.getIsOrganization());
             setIsPerson(value.getIsPerson());
+            setVersion(value.getVersion());
         }
     }
 }
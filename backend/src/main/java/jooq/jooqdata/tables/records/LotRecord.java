@@ -11,8 +11,8 @@ import jooqdata.tables.Lot;
 
 import org.jooq.Field;
 import org.jooq.Record1;
-import org.jooq.Record7;
-import org.jooq.Row7;
+import org.jooq.Record8;
+import org.jooq.Row8;
 import org.jooq.impl.UpdatableRecordImpl;
 
 
@@ -20,7 +20,7 @@ import org.jooq.impl.UpdatableRecordImpl;
  * This class is generated by jOOQ.
  */
 @SuppressWarnings({ "all", "unchecked", "rawtypes" })
-public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7<String, String, BigDecimal, String, String, String, LocalDateTime> {
+public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record8<String, String, BigDecimal, String, String, String, LocalDateTime, Long> {
 
     private static final long serialVersionUID = 1L;
 
@@ -129,6 +129,21 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         return (LocalDateTime) get(6);
     }
 
+    /**
+     * Setter for <code>purchase.lot.version</code>.
+     */
+    public LotRecord setVersion(Long value) {
+        set(7, value);
+        return this;
+    }
+
+    /**
+     * Getter for <code>purchase.lot.version</code>.
+     */
+    public Long getVersion() {
+        return (Long) get(7);
+    }
+
     // -------------------------------------------------------------------------
     // Primary key information
     // -------------------------------------------------------------------------
@@ -139,17 +154,17 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
     }
 
     // -------------------------------------------------------------------------
-    // Record7 type implementation
+    // Record8 type implementation
     // -------------------------------------------------------------------------
 
     @Override
-    public Row7<String, String, BigDecimal, String, String, String, LocalDateTime> fieldsRow() {
-        return (Row7) super.fieldsRow();
+    public Row8<String, String, BigDecimal, String, String, String, LocalDateTime, Long> fieldsRow() {
+        return (Row8) super.fieldsRow();
     }
 
     @Override
-    public Row7<String, String, BigDecimal, String, String, String, LocalDateTime> valuesRow() {
-        return (Row7) super.valuesRow();
+    public Row8<String, String, BigDecimal, String, String, String, LocalDateTime, Long> valuesRow() {
+        return (Row8) super.valuesRow();
     }
 
     @Override
@@ -187,6 +202,11 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         return Lot.LOT.DATE_DELIVERY;
     }
 
+    @Override
+    public Field<Long> field8() {
+        return Lot.LOT.VERSION;
+    }
+
     @Override
     public String component1() {
         return getLotName();
@@ -222,6 +242,11 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         return getDateDelivery();
     }
 
+    @Override
+    public Long component8() {
+        return getVersion();
+    }
+
     @Override
     public String value1() {
         return getLotName();
@@ -257,6 +282,11 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         return getDateDelivery();
     }
 
+    @Override
+    public Long value8() {
+        return getVersion();
+    }
+
     @Override
     public LotRecord value1(String value) {
         setLotName(value);
@@ -300,7 +330,13 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
     }
 
     @Override
-    public LotRecord values(String value1, String value2, BigDecimal value3, String value4, String value5, String value6, LocalDateTime value7) {
+    public LotRecord value8(Long value) {
+        setVersion(value);
+        return this;
+    }
+
+    @Override
+    public LotRecord values(String value1, String value2, BigDecimal value3, String value4, String value5, String value6, LocalDateTime value7, Long value8) {
         value1(value1);
         value2(value2);
         value3(value3);
@@ -308,6 +344,7 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         value5(value5);
         value6(value6);
         value7(value7);
+        value8(value8);
         return this;
     }
 
@@ -325,7 +362,7 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
     /**
      * Create a detached, initialised LotRecord
      */
-    public LotRecord(String lotName, String customerCode, BigDecimal price, String currencyCode, String ndsRate, String placeDelivery, LocalDateTime dateDelivery) {
+    public LotRecord(String lotName, String customerCode, BigDecimal price, String currencyCode, String ndsRate, String placeDelivery, LocalDateTime dateDelivery, Long version) {
         super(Lot.LOT);
 
         setLotName(lotName);
@@ -335,6 +372,7 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
         setNdsRate(ndsRate);
         setPlaceDelivery(placeDelivery);
         setDateDelivery(dateDelivery);
+        setVersion(version);
     }
 
     /**
@@ -351,6 +389,7 @@ public class LotRecord extends UpdatableRecordImpl<LotRecord> implements Record7
             setNdsRate(value.getNdsRate());
             setPlaceDelivery(value.getPlaceDelivery());
             setDateDelivery(value.getDateDelivery());
+            setVersion(value.getVersion());
         }
     }
 }
@@ -0,0 +1,41 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IfMatchTests {
+
+    @Test
+    void missingHeaderFallsBack() {
+        assertThat(IfMatch.version(null, 4L)).isEqualTo(4L);
+        assertThat(IfMatch.version(" ", 4L)).isEqualTo(4L);
+        assertThat(IfMatch.version(null, null)).isNull();
+    }
+
+    @Test
+    void wildcardMatchesAnyVersion() {
+        assertThat(IfMatch.version("*", 4L)).isNull();
+        assertThat(IfMatch.version(" * ", 4L)).isNull();
+    }
+
+    @Test
+    void strongVersionEtagsAreParsed() {
+        assertThat(IfMatch.version("\"7\"", 4L)).isEqualTo(7L);
+        assertThat(IfMatch.version(" \"0\" ", 4L)).isEqualTo(0L);
+    }
+
+    @Test
+    void weakEtagsNeverMatch() {
+        assertThat(IfMatch.version("W/\"7\"", 4L)).isEqualTo(-1L);
+    }
+
+    @Test
+    void malformedEtagsNeverMatch() {
+        assertThat(IfMatch.version("7", 4L)).isEqualTo(-1L);
+        assertThat(IfMatch.version("\"\"", 4L)).isEqualTo(-1L);
+        assertThat(IfMatch.version("\"abc\"", 4L)).isEqualTo(-1L);
+        assertThat(IfMatch.version("\"7\", \"8\"", 4L)).isEqualTo(-1L);
+        assertThat(IfMatch.version("\"99999999999999999999\"", 4L)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "demo.import.chunk-size=2")
+@AutoConfigureMockMvc
+class LotBatchImportTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final String prefix = "batch-test-" + UUID.randomUUID() + "-";
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            mvc.perform(delete("/api/lots/{name}", prefix + i));
+        }
+    }
+
+    private String lot(int i) {
+        return "{\"lotName\":\"" + prefix + i + "\",\"price\":" + i + "}\n";
+    }
+
+    @Test
+    void malformedInputAfterTheFirstChunkIsReportedWithTheRowsBeforeIt() throws Exception {
+        String body = lot(1) + lot(2) + lot(3) + "not json\n" + lot(4);
+
+        mvc.perform(post("/api/lots/batch").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].row").value(4))
+                .andExpect(jsonPath("$.errors[0].message", startsWith("Malformed JSON")));
+
+        for (int i = 1; i <= 3; i++) {
+            mvc.perform(get("/api/lots/{name}", prefix + i)).andExpect(status().isOk());
+        }
+        mvc.perform(get("/api/lots/{name}", prefix + 4)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void malformedElementsInsideAnArrayAreReportedToo() throws Exception {
+        String body = "[" + lot(1) + "," + lot(2) + "," + lot(3) + ", {\"lotName\": oops} ]";
+
+        mvc.perform(post("/api/lots/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.errors[0].row").value(4))
+                .andExpect(jsonPath("$.errors[0].message", startsWith("Malformed JSON")));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LotVersionTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final String name = "version-test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        mvc.perform(delete("/api/lots/{name}", name));
+    }
+
+    private String lot(int price) {
+        return "{\"lotName\":\"" + name + "\",\"price\":" + price + "}";
+    }
+
+    private String etag() throws Exception {
+        return mvc.perform(get("/api/lots/{name}", name))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void aLotCreatedAgainDoesNotMatchTheEtagOfTheDeletedOne() throws Exception {
+        mvc.perform(post("/api/lots").contentType(MediaType.APPLICATION_JSON).content(lot(10)))
+                .andExpect(status().isCreated());
+        String stale = etag();
+
+        mvc.perform(delete("/api/lots/{name}", name)).andExpect(status().isNoContent());
+        mvc.perform(post("/api/lots").contentType(MediaType.APPLICATION_JSON).content(lot(20)))
+                .andExpect(status().isCreated());
+
+        mvc.perform(get("/api/lots/{name}", name).header(HttpHeaders.IF_NONE_MATCH, stale))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(stale)));
+        mvc.perform(put("/api/lots/{name}", name).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content(lot(30)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void aLotUpsertedAgainDoesNotMatchTheEtagOfTheDeletedOne() throws Exception {
+        mvc.perform(post("/api/lots/upsert").contentType(MediaType.APPLICATION_JSON).content(lot(10)))
+                .andExpect(status().isOk());
+        String stale = etag();
+
+        mvc.perform(delete("/api/lots/{name}", name)).andExpect(status().isNoContent());
+        mvc.perform(post("/api/lots/upsert").contentType(MediaType.APPLICATION_JSON).content(lot(20)))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/lots/{name}", name).header(HttpHeaders.IF_NONE_MATCH, stale))
+                .andExpect(status().isOk());
+        mvc.perform(put("/api/lots/{name}", name).header(HttpHeaders.IF_MATCH, stale)
+                        .contentType(MediaType.APPLICATION_JSON).content(lot(30)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void anUpdateGetsAVersionNoOtherStateHad() throws Exception {
+        mvc.perform(post("/api/lots").contentType(MediaType.APPLICATION_JSON).content(lot(10)))
+                .andExpect(status().isCreated());
+        String created = etag();
+
+        mvc.perform(put("/api/lots/{name}", name).header(HttpHeaders.IF_MATCH, created)
+                        .contentType(MediaType.APPLICATION_JSON).content(lot(20)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(created)));
+        mvc.perform(get("/api/lots/{name}", name).header(HttpHeaders.IF_NONE_MATCH, created))
+                .andExpect(status().isOk());
+    }
+}
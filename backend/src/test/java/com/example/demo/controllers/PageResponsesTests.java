@@ -0,0 +1,45 @@
+package com.example.demo.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageResponsesTests {
+
+    @Test
+    void gzipIsAcceptedByNameOrWildcard() {
+        assertThat(PageResponses.acceptsGzip("gzip")).isTrue();
+        assertThat(PageResponses.acceptsGzip("deflate, GZIP")).isTrue();
+        assertThat(PageResponses.acceptsGzip("x-gzip")).isTrue();
+        assertThat(PageResponses.acceptsGzip("*")).isTrue();
+        assertThat(PageResponses.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+    }
+
+    @Test
+    void missingOrOtherEncodingsAreNotGzip() {
+        assertThat(PageResponses.acceptsGzip(null)).isFalse();
+        assertThat(PageResponses.acceptsGzip("")).isFalse();
+        assertThat(PageResponses.acceptsGzip("identity")).isFalse();
+        assertThat(PageResponses.acceptsGzip("br, deflate")).isFalse();
+    }
+
+    @Test
+    void zeroQualityRefuses() {
+        assertThat(PageResponses.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PageResponses.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(PageResponses.acceptsGzip("*;q=0")).isFalse();
+    }
+
+    @Test
+    void explicitGzipDecidesOverWildcard() {
+        assertThat(PageResponses.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(PageResponses.acceptsGzip("*;q=0, gzip")).isTrue();
+        assertThat(PageResponses.acceptsGzip("*;q=0.5, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void malformedQualityRefuses() {
+        assertThat(PageResponses.acceptsGzip("gzip;q=high")).isFalse();
+        assertThat(PageResponses.acceptsGzip("gzip;q=")).isFalse();
+    }
+}
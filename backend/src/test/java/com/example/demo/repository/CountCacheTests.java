@@ -0,0 +1,121 @@
+package com.example.demo.repository;
+
+import com.example.demo.DataSourceRoute;
+import com.example.demo.repository.TableChangeEvent.Change;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jooq.Condition;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static jooqdata.Tables.LOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTests {
+
+    private static final Condition FILTERED = DSL.field("price").gt(10);
+
+    private final CountCache cache = new CountCache();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "registry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ticker", (Ticker) nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private long count(Condition condition, long count) {
+        return cache.count(LOT, condition, () -> {
+            loads.incrementAndGet();
+            return count;
+        });
+    }
+
+    @Test
+    void countsAreLoadedOnce() {
+        assertThat(count(FILTERED, 5)).isEqualTo(5);
+        assertThat(count(FILTERED, 6)).isEqualTo(5);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void countsExpire() {
+        count(FILTERED, 5);
+        advance(Duration.ofSeconds(59));
+        assertThat(count(FILTERED, 6)).isEqualTo(5);
+        advance(Duration.ofSeconds(2));
+        assertThat(count(FILTERED, 6)).isEqualTo(6);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void insertsAndDeletesAdjustTheUnfilteredCount() {
+        count(DSL.noCondition(), 100);
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.INSERT));
+        cache.onChange(new TableChangeEvent(LOT.getName(), "b", Change.INSERT));
+        assertThat(count(DSL.noCondition(), 0)).isEqualTo(102);
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.DELETE));
+        cache.onChange(new TableChangeEvent(LOT.getName(), "b", Change.UPDATE));
+        assertThat(count(DSL.noCondition(), 0)).isEqualTo(101);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void adjustingDoesNotExtendTheTtl() {
+        count(DSL.noCondition(), 100);
+        advance(Duration.ofSeconds(40));
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.INSERT));
+        advance(Duration.ofSeconds(40));
+        assertThat(count(DSL.noCondition(), 7)).isEqualTo(7);
+    }
+
+    @Test
+    void changesDropFilteredCounts() {
+        count(FILTERED, 5);
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.UPDATE));
+        assertThat(count(FILTERED, 6)).isEqualTo(6);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void resetDropsTheUnfilteredCount() {
+        count(DSL.noCondition(), 100);
+        cache.onChange(new TableChangeEvent(LOT.getName(), null, Change.RESET));
+        assertThat(count(DSL.noCondition(), 50)).isEqualTo(50);
+    }
+
+    @Test
+    void countsLoadedAcrossAChangeAreNotKept() {
+        cache.count(LOT, FILTERED, () -> {
+            cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.INSERT));
+            return 5;
+        });
+        assertThat(count(FILTERED, 6)).isEqualTo(6);
+    }
+
+    @Test
+    void replicaCountsAreKeptApartAndDroppedOnChange() {
+        count(DSL.noCondition(), 100);
+        DataSourceRoute.set(DataSourceRoute.REPLICA);
+        try {
+            assertThat(count(DSL.noCondition(), 99)).isEqualTo(99);
+            cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.INSERT));
+            assertThat(count(DSL.noCondition(), 98)).isEqualTo(98);
+        } finally {
+            DataSourceRoute.clear();
+        }
+        assertThat(count(DSL.noCondition(), 0)).isEqualTo(101);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.repository;
+
+import jooqdata.tables.records.LotRecord;
+import org.jooq.DSLContext;
+import org.jooq.ResultQuery;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+
+import java.math.BigDecimal;
+
+import static jooqdata.Tables.LOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class KeysetPlanTests {
+
+    @Autowired
+    private DSLContext dsl;
+
+    private final Keyset keyset = Keyset.of(Sort.by(Order.asc("customerCode")), LotRepository.SORT_FIELDS,
+            LOT.LOT_NAME);
+
+    private String cursor(String customerCode) {
+        LotRecord record = dsl.newRecord(LOT);
+        record.set(LOT.LOT_NAME, "a");
+        record.set(LOT.CUSTOMER_CODE, customerCode);
+        record.set(LOT.PRICE, BigDecimal.ONE);
+        return keyset.cursor(record);
+    }
+
+    // with sequential scans priced out, a condition the index cannot seek on still shows up as a filter
+    private String plan(String after) {
+        return dsl.transactionResult(configuration -> {
+            DSLContext tx = DSL.using(configuration);
+            tx.execute("SET LOCAL enable_seqscan = off");
+            ResultQuery<LotRecord> query = keyset.query(tx, LOT, DSL.noCondition(), after, null, 20);
+            return tx.explain(query).plan();
+        });
+    }
+
+    @Test
+    void nullableAscendingKeySeeksOnTheIndex() {
+        assertThat(plan(cursor("C1")))
+                .contains("lot_customer_code_seek_idx", "Index Cond")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void nullCursorOnANullableAscendingKeySeeksOnTheIndex() {
+        assertThat(plan(cursor(null)))
+                .contains("lot_customer_code_seek_idx", "Index Cond: ((customer_code IS NULL) AND ")
+                .doesNotContain("Seq Scan");
+    }
+}
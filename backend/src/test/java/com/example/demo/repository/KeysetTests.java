@@ -0,0 +1,132 @@
+package com.example.demo.repository;
+
+import jooqdata.tables.records.LotRecord;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static jooqdata.Tables.LOT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetTests {
+
+    private static final DSLContext DSL_CONTEXT = DSL.using(SQLDialect.POSTGRES);
+
+    private static Keyset keyset(Order... orders) {
+        return Keyset.of(Sort.by(orders), LotRepository.SORT_FIELDS, LOT.LOT_NAME);
+    }
+
+    private static LotRecord lot(String lotName, String customerCode, BigDecimal price) {
+        LotRecord record = DSL_CONTEXT.newRecord(LOT);
+        record.set(LOT.LOT_NAME, lotName);
+        record.set(LOT.CUSTOMER_CODE, customerCode);
+        record.set(LOT.PRICE, price);
+        return record;
+    }
+
+    private static String render(Condition condition) {
+        return DSL_CONTEXT.renderInlined(condition);
+    }
+
+    @Test
+    void tiebreakerFollowsTheLastSortKey() {
+        assertThat(keyset(Order.desc("price")).orderBy()).containsExactly(LOT.PRICE.desc(), LOT.LOT_NAME.desc());
+        assertThat(keyset(Order.desc("price"), Order.asc("customerCode")).orderBy())
+                .containsExactly(LOT.PRICE.desc(), LOT.CUSTOMER_CODE.asc(), LOT.LOT_NAME.asc());
+        assertThat(keyset().orderBy()).containsExactly(LOT.LOT_NAME.asc());
+    }
+
+    @Test
+    void repeatedAndTiebreakerKeysAreNotDuplicated() {
+        assertThat(keyset(Order.desc("lotName"), Order.asc("lotName")).orderBy())
+                .containsExactly(LOT.LOT_NAME.desc());
+    }
+
+    @Test
+    void unknownSortPropertiesAreRejected() {
+        assertThatThrownBy(() -> keyset(Order.asc("nope"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorsRoundTripIntoARowValueSeek() {
+        Keyset keyset = keyset(Order.desc("price"));
+        String cursor = keyset.cursor(lot("a", "C1", new BigDecimal("12.50")));
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(render(keyset.after(cursor)))
+                .isEqualTo(render(DSL.row(LOT.PRICE, LOT.LOT_NAME).lt(new BigDecimal("12.50"), "a")));
+    }
+
+    @Test
+    void nullableAscendingKeysSeekPastTheirNulls() {
+        Keyset keyset = keyset(Order.asc("customerCode"));
+        String cursor = keyset.cursor(lot("a", "C1", BigDecimal.ONE));
+
+        Condition expected = DSL.row(LOT.CUSTOMER_CODE, LOT.LOT_NAME).gt("C1", "a")
+                .or(LOT.CUSTOMER_CODE.isNull());
+        assertThat(render(keyset.after(cursor))).isEqualTo(render(expected));
+    }
+
+    @Test
+    void nullCursorValuesSortLastAscending() {
+        Keyset keyset = keyset(Order.asc("customerCode"));
+        String cursor = keyset.cursor(lot("a", null, BigDecimal.ONE));
+
+        Condition expected = LOT.CUSTOMER_CODE.isNull().and(LOT.LOT_NAME.gt("a"));
+        assertThat(render(keyset.after(cursor))).isEqualTo(render(expected));
+    }
+
+    @Test
+    void nullCursorValuesSortFirstDescending() {
+        Keyset keyset = keyset(Order.desc("customerCode"));
+        String cursor = keyset.cursor(lot("a", null, BigDecimal.ONE));
+
+        Condition expected = LOT.CUSTOMER_CODE.isNotNull()
+                .or(LOT.CUSTOMER_CODE.isNull().and(LOT.LOT_NAME.lt("a")));
+        assertThat(render(keyset.after(cursor))).isEqualTo(render(expected));
+    }
+
+    @Test
+    void nullableKeysAfterTheFirstSeekPastTheirNulls() {
+        Keyset keyset = keyset(Order.asc("price"), Order.asc("customerCode"));
+        String cursor = keyset.cursor(lot("a", "C1", BigDecimal.ONE));
+
+        Condition expected = DSL.row(LOT.PRICE, LOT.CUSTOMER_CODE, LOT.LOT_NAME).gt(BigDecimal.ONE, "C1", "a")
+                .or(LOT.PRICE.eq(BigDecimal.ONE).and(LOT.CUSTOMER_CODE.isNull()));
+        assertThat(render(keyset.after(cursor))).isEqualTo(render(expected));
+    }
+
+    @Test
+    void mixedDirectionsAreExpanded() {
+        Keyset keyset = keyset(Order.desc("price"), Order.asc("customerCode"));
+        String cursor = keyset.cursor(lot("a", "C1", BigDecimal.ONE));
+
+        Condition expected = DSL.or(List.of(
+                LOT.PRICE.lt(BigDecimal.ONE),
+                LOT.PRICE.eq(BigDecimal.ONE).and(LOT.CUSTOMER_CODE.gt("C1").or(LOT.CUSTOMER_CODE.isNull())),
+                LOT.PRICE.eq(BigDecimal.ONE).and(LOT.CUSTOMER_CODE.eq("C1")).and(LOT.LOT_NAME.gt("a"))));
+        assertThat(render(keyset.after(cursor))).isEqualTo(render(expected));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        Keyset keyset = keyset(Order.desc("price"));
+        String notJson = Base64.getUrlEncoder().encodeToString("not json".getBytes(StandardCharsets.UTF_8));
+        String otherSort = keyset(Order.desc("price"), Order.asc("customerCode"))
+                .cursor(lot("a", "C1", BigDecimal.ONE));
+
+        assertThatThrownBy(() -> keyset.after("!!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> keyset.after(notJson)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> keyset.after(otherSort)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
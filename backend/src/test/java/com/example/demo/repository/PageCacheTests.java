@@ -0,0 +1,85 @@
+package com.example.demo.repository;
+
+import com.example.demo.DataSourceRoute;
+import com.example.demo.repository.TableChangeEvent.Change;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static jooqdata.Tables.LOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCacheTests {
+
+    private final PageCache cache = new PageCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "registry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+    }
+
+    @AfterEach
+    void clearRoute() {
+        DataSourceRoute.clear();
+    }
+
+    private String page(DataSourceRoute route, String row) {
+        DataSourceRoute.set(route);
+        try {
+            JsonPage page = cache.page(LOT, DSL.noCondition(), PageRequest.of(0, 10), CountMode.EXACT,
+                    () -> new Versioned<Supplier<List<String>>>(() -> List.of(row), "\"" + row + "\""));
+            return new String(page.json(), StandardCharsets.UTF_8);
+        } finally {
+            DataSourceRoute.clear();
+        }
+    }
+
+    @Test
+    void pagesAreServedUntilTheTableChanges() {
+        assertThat(page(DataSourceRoute.PRIMARY, "old")).isEqualTo("[\"old\"]");
+        assertThat(page(DataSourceRoute.PRIMARY, "new")).isEqualTo("[\"old\"]");
+
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.UPDATE));
+        assertThat(page(DataSourceRoute.PRIMARY, "new")).isEqualTo("[\"new\"]");
+    }
+
+    @Test
+    void aStickyReadAfterAWriteIsNotAnsweredWithAReplicaPage() {
+        page(DataSourceRoute.PRIMARY, "old");
+        cache.onChange(new TableChangeEvent(LOT.getName(), "a", Change.UPDATE));
+
+        // the replica has not caught up with the write yet
+        assertThat(page(DataSourceRoute.REPLICA, "old")).isEqualTo("[\"old\"]");
+        assertThat(page(DataSourceRoute.PRIMARY, "new")).isEqualTo("[\"new\"]");
+        assertThat(page(DataSourceRoute.REPLICA, "new")).isEqualTo("[\"old\"]");
+    }
+
+    @Test
+    void contentIsOnlyBuiltWhenTheJsonIsNeeded() {
+        AtomicInteger built = new AtomicInteger();
+        JsonPage page = cache.page(LOT, DSL.noCondition(), PageRequest.of(0, 10), CountMode.EXACT,
+                () -> new Versioned<Supplier<List<String>>>(() -> {
+                    built.incrementAndGet();
+                    return List.of("row");
+                }, "\"1\""));
+
+        assertThat(page.etag()).isEqualTo("\"1\"");
+        assertThat(built).hasValue(0);
+        page.json();
+        assertThat(built).hasValue(1);
+    }
+}
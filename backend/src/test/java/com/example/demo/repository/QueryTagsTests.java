@@ -0,0 +1,52 @@
+package com.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryTagsTests {
+
+    @Test
+    void sortKeysAreOrderedByName() {
+        assertThat(QueryTags.sort(Sort.by(Order.desc("price"), Order.asc("lotName")), LotRepository.SORT_FIELDS))
+                .isEqualTo("lotName:asc,price:desc");
+        assertThat(QueryTags.sort(Sort.by(Order.asc("lotName"), Order.desc("price")), LotRepository.SORT_FIELDS))
+                .isEqualTo("lotName:asc,price:desc");
+    }
+
+    @Test
+    void repeatedSortKeysCountOnceWithTheirFirstDirection() {
+        Sort sort = Sort.by(Order.asc("price"), Order.desc("price"), Order.asc("price"));
+        assertThat(QueryTags.sort(sort, LotRepository.SORT_FIELDS)).isEqualTo("price:asc");
+    }
+
+    @Test
+    void longSortsAndUnknownKeysCollapse() {
+        Sort three = Sort.by("price", "lotName", "currencyCode");
+        assertThat(QueryTags.sort(three, LotRepository.SORT_FIELDS)).isEqualTo("other");
+        assertThat(QueryTags.sort(Sort.by("price", "nope"), LotRepository.SORT_FIELDS)).isEqualTo("invalid");
+        assertThat(QueryTags.sort(Sort.unsorted(), LotRepository.SORT_FIELDS)).isEqualTo("none");
+    }
+
+    @Test
+    void filtersNameTheSetValues() {
+        assertThat(QueryTags.filters("lotName", "a", "customerCode", null, "minPrice", 1.0, "currencyCode", " "))
+                .isEqualTo("lotName+minPrice");
+        assertThat(QueryTags.filters("lotName", null, "customerCode", "")).isEqualTo("none");
+    }
+
+    @Test
+    void manyFiltersCollapse() {
+        assertThat(QueryTags.filters("a", "1", "b", "2", "c", "3")).isEqualTo("a+b+c");
+        assertThat(QueryTags.filters("a", "1", "b", "2", "c", "3", "d", "4")).isEqualTo("other");
+    }
+
+    @Test
+    void unknownMethodsCollapse() {
+        assertThat(new QueryTags("lots.findAll", "none", "none").method()).isEqualTo("lots.findAll");
+        assertThat(new QueryTags("lots.findAll?lotName=x", "none", "none").method()).isEqualTo("other");
+        assertThat(QueryTags.UNTAGGED.method()).isEqualTo("untagged");
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.repository;
+
+import com.example.demo.DataSourceRoute;
+import jooqdata.tables.pojos.Lot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ReplicaReadCacheTests {
+
+    @Autowired
+    private LotRepository lots;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final String name = "replica-test-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        DataSourceRoute.clear();
+        lots.delete(name);
+    }
+
+    private Lot lot(int price, Long version) {
+        return new Lot(name, null, BigDecimal.valueOf(price), null, null, null, null, version);
+    }
+
+    private Versioned<Lot> read(DataSourceRoute route) {
+        DataSourceRoute.set(route);
+        try {
+            return lots.findVersioned(name).orElseThrow();
+        } finally {
+            DataSourceRoute.clear();
+        }
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheRowCache() {
+        Lot saved = lots.save(lot(10, null));
+        lots.update(lot(20, saved.getVersion()));
+
+        read(DataSourceRoute.REPLICA);
+        assertThat(cacheManager.getCache("lots").get(name)).isNull();
+
+        // the sticky read goes to the primary and fills the cache with what it read there
+        assertThat(read(DataSourceRoute.PRIMARY).value().getPrice()).isEqualByComparingTo("20");
+        assertThat(cacheManager.getCache("lots").get(name)).isNotNull();
+    }
+
+    @Test
+    void replicaReadsUseRowsThePrimaryCached() {
+        lots.save(lot(10, null));
+        Versioned<Lot> primary = read(DataSourceRoute.PRIMARY);
+
+        assertThat(read(DataSourceRoute.REPLICA)).isSameAs(primary);
+    }
+}
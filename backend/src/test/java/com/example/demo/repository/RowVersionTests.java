@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowVersionTests {
+
+    @Test
+    void rowEtagsQuoteTheVersion() {
+        assertThat(RowVersion.etag(7)).isEqualTo("\"7\"");
+        assertThat(RowVersion.etag(0)).isEqualTo("\"0\"");
+    }
+
+    @Test
+    void pageEtagsAreStableStrongEtags() {
+        String etag = RowVersion.etag(List.of(42, "a", "1234"));
+        assertThat(etag).matches("\"[0-9a-f]{32}\"");
+        assertThat(RowVersion.etag(List.of(42, "a", "1234"))).isEqualTo(etag);
+    }
+
+    @Test
+    void pageEtagsDependOnEveryPartAndItsPosition() {
+        String etag = RowVersion.etag(List.of(42, "a", "1234"));
+        assertThat(RowVersion.etag(List.of(43, "a", "1234"))).isNotEqualTo(etag);
+        assertThat(RowVersion.etag(List.of(42, "a", "1235"))).isNotEqualTo(etag);
+        assertThat(RowVersion.etag(List.of(42, "1234", "a"))).isNotEqualTo(etag);
+    }
+
+    @Test
+    void partsAreSeparated() {
+        assertThat(RowVersion.etag(List.of("ab", "c"))).isNotEqualTo(RowVersion.etag(List.of("a", "bc")));
+        assertThat(RowVersion.etag(List.of("a"))).isNotEqualTo(RowVersion.etag(List.of("a", "")));
+    }
+
+    @Test
+    void nullPartsAreAllowed() {
+        assertThat(RowVersion.etag(Arrays.asList(null, "a"))).matches("\"[0-9a-f]{32}\"");
+    }
+}
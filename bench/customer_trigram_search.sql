@@ -0,0 +1,55 @@
+-- Latency of the customer filter queries with and without the trigram indexes.
+--
+--   psql -v rows=1000000 -f bench/customer_trigram_search.sql
+--
+-- Works on a scratch copy of purchase.customer in schema customer_bench, which is dropped at the end.
+-- The queries are the ones CustomerRepository.findAll renders (ILIKE '%...%', 20 rows, plus the count).
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 1000000
+\endif
+\timing on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP SCHEMA IF EXISTS customer_bench CASCADE;
+CREATE SCHEMA customer_bench;
+CREATE TABLE customer_bench.customer (LIKE purchase.customer INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+ALTER TABLE customer_bench.customer ADD PRIMARY KEY (customer_code);
+
+INSERT INTO customer_bench.customer
+SELECT 'C' || lpad(i::text, 9, '0'),
+       'Customer ' || md5(i::text),
+       lpad((i::bigint * 7919 % 10000000000)::text, 10, '0'),
+       lpad((i % 1000000000)::text, 9, '0'),
+       (i % 997) || ' ' || md5((i * 3)::text) || ' street, building ' || (i % 300),
+       (i % 991) || ' ' || md5((i * 5)::text) || ' avenue, office ' || (i % 120),
+       'user' || i || '@' || md5((i % 5000)::text) || '.example',
+       NULL,
+       i % 2 = 0,
+       i % 2 = 1
+FROM generate_series(1, :rows) AS i;
+ANALYZE customer_bench.customer;
+
+\echo '=== without trigram indexes ==='
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_name ILIKE '%4f2a9%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM customer_bench.customer WHERE customer_name ILIKE '%4f2a9%';
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_legal_address ILIKE '%street, building 17%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_email ILIKE '%user4242@%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_code ILIKE '%0012345%' LIMIT 20;
+
+CREATE INDEX ON customer_bench.customer USING gin (customer_code gin_trgm_ops);
+CREATE INDEX ON customer_bench.customer USING gin (customer_name gin_trgm_ops);
+CREATE INDEX ON customer_bench.customer USING gin (customer_legal_address gin_trgm_ops);
+CREATE INDEX ON customer_bench.customer USING gin (customer_email gin_trgm_ops);
+ANALYZE customer_bench.customer;
+
+\echo '=== with trigram indexes ==='
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_name ILIKE '%4f2a9%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM customer_bench.customer WHERE customer_name ILIKE '%4f2a9%';
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_legal_address ILIKE '%street, building 17%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_email ILIKE '%user4242@%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer_bench.customer WHERE customer_code ILIKE '%0012345%' LIMIT 20;
+
+DROP SCHEMA customer_bench CASCADE;
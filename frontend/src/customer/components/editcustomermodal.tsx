@@ -4,7 +4,7 @@ import { TextField } from '@consta/uikit/TextField';
 import { Checkbox } from '@consta/uikit/Checkbox';
 import { Modal } from '@consta/uikit/Modal';
 import { Loader } from '@consta/uikit/Loader';
-import { updateCustomer, getCustomers } from '../services/customerservice';
+import { updateCustomer, getCustomers, CustomerConflictError } from '../services/customerservice';
 import type { UpdateCustomerRequest } from '../services/customerservice';
 
 interface EditCustomerModalProps {
@@ -56,6 +56,7 @@ export const EditCustomerModal: React.FC<EditCustomerModalProps> = ({
           customerCodeMain: customer.customerCodeMain || undefined,
           isOrganization: customer.isOrganization,
           isPerson: customer.isPerson,
+          version: customer.version,
         });
       } catch (err) {
         setError('Не удалось загрузить данные клиента. Пожалуйста, попробуйте снова.');
@@ -89,7 +90,9 @@ export const EditCustomerModal: React.FC<EditCustomerModalProps> = ({
       onCustomerUpdated();  
       onClose();
     } catch (err) {
-      setError('Не удалось обновить данные клиента. Пожалуйста, попробуйте снова.');
+      setError(err instanceof CustomerConflictError
+        ? 'Клиент был изменён другим пользователем. Откройте его заново, чтобы увидеть актуальные данные.'
+        : 'Не удалось обновить данные клиента. Пожалуйста, попробуйте снова.');
       console.error('Ошибка при обновлении клиента:', err);
     } finally {
       setIsLoading(false);
@@ -73,6 +73,8 @@ export async function getCustomers(
 
   const response = await fetch(`http://localhost:8080/api/customers?${query.toString()}`, {
     method: 'GET',
+    // sends back the cookie that keeps reads on the primary right after a write
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -105,6 +107,7 @@ export async function createCustomer(
 ): Promise<Customer> {
   const response = await fetch('http://localhost:8080/api/customers', {
     method: 'POST',
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -134,14 +137,18 @@ export interface UpdateCustomerRequest {
   customerCodeMain?: string;
   isOrganization: boolean;
   isPerson: boolean;
+  version?: number; // the version that was edited; the update fails if the customer has changed since
 }
 
+export class CustomerConflictError extends Error {}
+
 export async function updateCustomer(
   customerCode: string,
   customerData: UpdateCustomerRequest
 ): Promise<Customer> {
   const response = await fetch(`http://localhost:8080/api/customers/${customerCode}`, {
     method: 'PUT',
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -150,6 +157,9 @@ export async function updateCustomer(
   });
 
   if (!response.ok) {
+    if (response.status === 412) {
+      throw new CustomerConflictError(`Customer was changed by someone else: ${customerCode}`);
+    }
     const errorData = await response.json().catch(() => ({}));
     throw new Error(
       `Failed to update customer: ${response.status} ${response.statusText}` +
@@ -163,6 +173,7 @@ export async function updateCustomer(
 export async function deleteCustomer(customerCode: string): Promise<void> {
   const response = await fetch(`http://localhost:8080/api/customers/${customerCode}`, {
     method: 'DELETE',
+    credentials: 'include',
     headers: {
       'Accept': 'application/json',
     },
@@ -9,4 +9,5 @@ export type Customer = {
   customerCodeMain: string | null;
   isOrganization: boolean;
   isPerson: boolean;
+  version: number;
 };
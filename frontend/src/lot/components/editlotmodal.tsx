@@ -4,7 +4,7 @@ import { TextField } from '@consta/uikit/TextField';
 import { Modal } from '@consta/uikit/Modal';
 import { Loader } from '@consta/uikit/Loader';
 import { Select } from '@consta/uikit/Select';
-import { updateLot, getLotByName } from '../services/lotservice';
+import { updateLot, getLotByName, LotConflictError } from '../services/lotservice';
 import type { UpdateLotRequest } from '../services/lotservice';
 
 interface EditLotModalProps {
@@ -68,6 +68,7 @@ export const EditLotModal: React.FC<EditLotModalProps> = ({
           ndsRate: lot.ndsRate,
           placeDelivery: lot.placeDelivery,
           dateDelivery: lot.dateDelivery,
+          version: lot.version,
         });
       } catch (err) {
         setError('Не удалось загрузить данные лота. Пожалуйста, попробуйте снова.');
@@ -106,7 +107,9 @@ export const EditLotModal: React.FC<EditLotModalProps> = ({
       onLotUpdated();  
       onClose();
     } catch (err) {
-      setError('Не удалось обновить данные лота. Пожалуйста, попробуйте снова.');
+      setError(err instanceof LotConflictError
+        ? 'Лот был изменён другим пользователем. Откройте его заново, чтобы увидеть актуальные данные.'
+        : 'Не удалось обновить данные лота. Пожалуйста, попробуйте снова.');
       console.error('Ошибка при обновлении лота:', err);
     } finally {
       setIsLoading(false);
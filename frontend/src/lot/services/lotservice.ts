@@ -64,6 +64,8 @@ export async function getLots(
 
   const response = await fetch(`http://localhost:8080/api/lots?${query.toString()}`, {
     method: 'GET',
+    // sends back the cookie that keeps reads on the primary right after a write
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -80,6 +82,7 @@ export async function getLots(
 export async function getLotByName(name: string): Promise<Lot> {
   const response = await fetch(`http://localhost:8080/api/lots/${encodeURIComponent(name)}`, {
     method: 'GET',
+    credentials: 'include',
     headers: {
       'Accept': 'application/json',
     },
@@ -110,6 +113,7 @@ export async function createLot(
 ): Promise<Lot> {
   const response = await fetch('http://localhost:8080/api/lots', {
     method: 'POST',
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -136,8 +140,11 @@ export interface UpdateLotRequest {
   ndsRate: string;
   placeDelivery: string;
   dateDelivery: string; // ISO-8601 
+  version?: number; // the version that was edited; the update fails if the lot has changed since
 }
 
+export class LotConflictError extends Error {}
+
 export async function updateLot(
   name: string,
   lotData: UpdateLotRequest
@@ -148,6 +155,7 @@ export async function updateLot(
 
   const response = await fetch(`http://localhost:8080/api/lots/${encodeURIComponent(name)}`, {
     method: 'PUT',
+    credentials: 'include',
     headers: {
       'Content-Type': 'application/json',
       'Accept': 'application/json',
@@ -159,6 +167,9 @@ export async function updateLot(
     if (response.status === 404) {
       throw new Error(`Lot not found: ${name}`);
     }
+    if (response.status === 412) {
+      throw new LotConflictError(`Lot was changed by someone else: ${name}`);
+    }
     const errorData = await response.json().catch(() => ({}));
     throw new Error(
       `Failed to update lot: ${response.status} ${response.statusText}` +
@@ -172,6 +183,7 @@ export async function updateLot(
 export async function deleteLot(name: string): Promise<void> {
   const response = await fetch(`http://localhost:8080/api/lots/${encodeURIComponent(name)}`, {
     method: 'DELETE',
+    credentials: 'include',
     headers: {
       'Accept': 'application/json',
     },
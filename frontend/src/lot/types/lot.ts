@@ -6,4 +6,5 @@ export interface Lot {
   ndsRate: string;
   placeDelivery: string;
   dateDelivery: string; // ISO-8601 datetime format
+  version: number;
 }
\ No newline at end of file
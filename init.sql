@@ -1,5 +1,8 @@
 CREATE SCHEMA purchase;
 
+-- row versions behind ETags and If-Match, see migrations/006_row_version_sequence.sql
+CREATE SEQUENCE purchase.row_version;
+
 CREATE TABLE purchase.customer (
     customer_code VARCHAR PRIMARY KEY,
     customer_name VARCHAR NOT NULL,
@@ -10,7 +13,12 @@ CREATE TABLE purchase.customer (
     customer_email VARCHAR,
     customer_code_main VARCHAR REFERENCES purchase.customer(customer_code), 
     is_organization BOOLEAN,
-    is_person BOOLEAN
+    is_person BOOLEAN,
+    version BIGINT NOT NULL DEFAULT nextval('purchase.row_version'),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(customer_name, '') || ' ' || customer_code), 'A') ||
+        setweight(to_tsvector('simple', coalesce(customer_legal_address, '') || ' ' || coalesce(customer_postal_address, '')), 'B')
+    ) STORED
 );
 
 CREATE TABLE purchase.lot (
@@ -20,5 +28,100 @@ CREATE TABLE purchase.lot (
     currency_code VARCHAR CHECK (currency_code IN ('RUB', 'USD', 'EUR')),
     nds_rate VARCHAR CHECK (nds_rate IN ('Без НДС', '18%', '20%')),
     place_delivery VARCHAR,
-    date_delivery TIMESTAMP
+    date_delivery TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT nextval('purchase.row_version'),
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', lot_name), 'A') ||
+        setweight(to_tsvector('simple', coalesce(place_delivery, '')), 'B')
+    ) STORED
 );
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX customer_code_trgm_idx ON purchase.customer USING gin (customer_code gin_trgm_ops);
+CREATE INDEX customer_name_trgm_idx ON purchase.customer USING gin (customer_name gin_trgm_ops);
+CREATE INDEX customer_legal_address_trgm_idx ON purchase.customer USING gin (customer_legal_address gin_trgm_ops);
+CREATE INDEX customer_postal_address_trgm_idx ON purchase.customer USING gin (customer_postal_address gin_trgm_ops);
+CREATE INDEX customer_email_trgm_idx ON purchase.customer USING gin (customer_email gin_trgm_ops);
+CREATE INDEX customer_code_main_trgm_idx ON purchase.customer USING gin (customer_code_main gin_trgm_ops);
+
+CREATE INDEX customer_search_idx ON purchase.customer USING gin (search_vector);
+CREATE INDEX lot_search_idx ON purchase.lot USING gin (search_vector);
+
+-- keyset page indexes, see migrations/005_keyset_indexes.sql
+CREATE INDEX lot_customer_code_seek_idx ON purchase.lot (customer_code, lot_name);
+CREATE INDEX lot_price_seek_idx ON purchase.lot (price, lot_name);
+CREATE INDEX lot_currency_code_seek_idx ON purchase.lot (currency_code, lot_name);
+CREATE INDEX lot_date_delivery_seek_idx ON purchase.lot (date_delivery, lot_name);
+
+CREATE INDEX customer_name_seek_idx ON purchase.customer (customer_name, customer_code);
+CREATE INDEX customer_inn_seek_idx ON purchase.customer (customer_inn, customer_code);
+CREATE INDEX customer_kpp_seek_idx ON purchase.customer (customer_kpp, customer_code);
+CREATE INDEX customer_is_organization_seek_idx ON purchase.customer (is_organization, customer_code);
+CREATE INDEX customer_is_person_seek_idx ON purchase.customer (is_person, customer_code);
+CREATE INDEX customer_legal_address_seek_idx ON purchase.customer (customer_legal_address, customer_code);
+CREATE INDEX customer_postal_address_seek_idx ON purchase.customer (customer_postal_address, customer_code);
+CREATE INDEX customer_email_seek_idx ON purchase.customer (customer_email, customer_code);
+CREATE INDEX customer_code_main_seek_idx ON purchase.customer (customer_code_main, customer_code);
+
+-- change notifications for the application caches, see migrations/003_change_notify.sql
+CREATE FUNCTION purchase.publish_change(tbl text, key text, op text) RETURNS void AS $$
+    SELECT pg_notify('purchase_changes', json_build_object(
+        'table', tbl,
+        'key', key,
+        'op', op,
+        'origin', current_setting('application_name')
+    )::text);
+$$ LANGUAGE sql;
+
+-- TG_ARGV[0] names the primary key column
+CREATE FUNCTION purchase.notify_change() RETURNS trigger AS $$
+DECLARE
+    old_key text;
+    new_key text;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM purchase.publish_change(TG_TABLE_NAME, NULL, TG_OP);
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        old_key := to_jsonb(OLD) ->> TG_ARGV[0];
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        new_key := to_jsonb(NEW) ->> TG_ARGV[0];
+    END IF;
+    -- a changed primary key is a different row as far as the caches are concerned
+    IF TG_OP = 'UPDATE' AND old_key IS DISTINCT FROM new_key THEN
+        PERFORM purchase.publish_change(TG_TABLE_NAME, old_key, 'DELETE');
+        PERFORM purchase.publish_change(TG_TABLE_NAME, new_key, 'INSERT');
+    ELSE
+        PERFORM purchase.publish_change(TG_TABLE_NAME, coalesce(new_key, old_key), TG_OP);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_notify_change AFTER INSERT OR UPDATE OR DELETE ON purchase.customer
+    FOR EACH ROW EXECUTE FUNCTION purchase.notify_change('customer_code');
+CREATE TRIGGER customer_notify_truncate AFTER TRUNCATE ON purchase.customer
+    FOR EACH STATEMENT EXECUTE FUNCTION purchase.notify_change();
+
+CREATE TRIGGER lot_notify_change AFTER INSERT OR UPDATE OR DELETE ON purchase.lot
+    FOR EACH ROW EXECUTE FUNCTION purchase.notify_change('lot_name');
+CREATE TRIGGER lot_notify_truncate AFTER TRUNCATE ON purchase.lot
+    FOR EACH STATEMENT EXECUTE FUNCTION purchase.notify_change();
+
+-- row versions behind If-Match, see migrations/004_row_versions.sql and 006_row_version_sequence.sql
+CREATE FUNCTION purchase.bump_version() RETURNS trigger AS $$
+BEGIN
+    IF NEW.version IS NOT DISTINCT FROM OLD.version THEN
+        NEW.version := nextval('purchase.row_version');
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER customer_bump_version BEFORE UPDATE ON purchase.customer
+    FOR EACH ROW EXECUTE FUNCTION purchase.bump_version();
+CREATE TRIGGER lot_bump_version BEFORE UPDATE ON purchase.lot
+    FOR EACH ROW EXECUTE FUNCTION purchase.bump_version();
@@ -0,0 +1,14 @@
+-- Trigram indexes backing the ILIKE '%...%' customer filters, for databases created before init.sql
+-- included them. CONCURRENTLY keeps purchase.customer writable while the indexes build, so run this
+-- with psql outside of a transaction block.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_code_trgm_idx ON purchase.customer USING gin (customer_code gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_trgm_idx ON purchase.customer USING gin (customer_name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_legal_address_trgm_idx ON purchase.customer USING gin (customer_legal_address gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_postal_address_trgm_idx ON purchase.customer USING gin (customer_postal_address gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_email_trgm_idx ON purchase.customer USING gin (customer_email gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_code_main_trgm_idx ON purchase.customer USING gin (customer_code_main gin_trgm_ops);
+
+ANALYZE purchase.customer;
@@ -0,0 +1,15 @@
+-- Full-text search columns behind GET /api/search. Adding a stored generated column rewrites the table,
+-- so schedule this outside of peak hours on large databases.
+
+ALTER TABLE purchase.customer ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(customer_name, '') || ' ' || customer_code), 'A') ||
+    setweight(to_tsvector('simple', coalesce(customer_legal_address, '') || ' ' || coalesce(customer_postal_address, '')), 'B')
+) STORED;
+
+ALTER TABLE purchase.lot ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', lot_name), 'A') ||
+    setweight(to_tsvector('simple', coalesce(place_delivery, '')), 'B')
+) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_search_idx ON purchase.customer USING gin (search_vector);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS lot_search_idx ON purchase.lot USING gin (search_vector);
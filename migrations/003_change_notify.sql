@@ -0,0 +1,54 @@
+-- Change notifications for the application's in-process caches. Every row written to purchase.lot or
+-- purchase.customer is announced on the purchase_changes channel as
+--   {"table": "lot", "key": "<primary key>", "op": "INSERT|UPDATE|DELETE|TRUNCATE", "origin": "<application_name>"}
+-- and delivered to listeners when the writing transaction commits. Safe to run more than once.
+
+CREATE OR REPLACE FUNCTION purchase.publish_change(tbl text, key text, op text) RETURNS void AS $$
+    SELECT pg_notify('purchase_changes', json_build_object(
+        'table', tbl,
+        'key', key,
+        'op', op,
+        'origin', current_setting('application_name')
+    )::text);
+$$ LANGUAGE sql;
+
+-- TG_ARGV[0] names the primary key column
+CREATE OR REPLACE FUNCTION purchase.notify_change() RETURNS trigger AS $$
+DECLARE
+    old_key text;
+    new_key text;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM purchase.publish_change(TG_TABLE_NAME, NULL, TG_OP);
+        RETURN NULL;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        old_key := to_jsonb(OLD) ->> TG_ARGV[0];
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        new_key := to_jsonb(NEW) ->> TG_ARGV[0];
+    END IF;
+    -- a changed primary key is a different row as far as the caches are concerned
+    IF TG_OP = 'UPDATE' AND old_key IS DISTINCT FROM new_key THEN
+        PERFORM purchase.publish_change(TG_TABLE_NAME, old_key, 'DELETE');
+        PERFORM purchase.publish_change(TG_TABLE_NAME, new_key, 'INSERT');
+    ELSE
+        PERFORM purchase.publish_change(TG_TABLE_NAME, coalesce(new_key, old_key), TG_OP);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS customer_notify_change ON purchase.customer;
+CREATE TRIGGER customer_notify_change AFTER INSERT OR UPDATE OR DELETE ON purchase.customer
+    FOR EACH ROW EXECUTE FUNCTION purchase.notify_change('customer_code');
+DROP TRIGGER IF EXISTS customer_notify_truncate ON purchase.customer;
+CREATE TRIGGER customer_notify_truncate AFTER TRUNCATE ON purchase.customer
+    FOR EACH STATEMENT EXECUTE FUNCTION purchase.notify_change();
+
+DROP TRIGGER IF EXISTS lot_notify_change ON purchase.lot;
+CREATE TRIGGER lot_notify_change AFTER INSERT OR UPDATE OR DELETE ON purchase.lot
+    FOR EACH ROW EXECUTE FUNCTION purchase.notify_change('lot_name');
+DROP TRIGGER IF EXISTS lot_notify_truncate ON purchase.lot;
+CREATE TRIGGER lot_notify_truncate AFTER TRUNCATE ON purchase.lot
+    FOR EACH STATEMENT EXECUTE FUNCTION purchase.notify_change();
@@ -0,0 +1,24 @@
+-- Row versions for optimistic concurrency: PUT /api/lots/{name} and PUT /api/customers/{code} only write
+-- when If-Match (or the version in the body) still names the current version. The application bumps the
+-- version itself; the trigger bumps it for updates from anywhere else, so an ETag never outlives a change.
+-- Adding a column with a constant default does not rewrite the table.
+
+ALTER TABLE purchase.customer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE purchase.lot ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION purchase.bump_version() RETURNS trigger AS $$
+BEGIN
+    IF NEW.version IS NOT DISTINCT FROM OLD.version THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS customer_bump_version ON purchase.customer;
+CREATE TRIGGER customer_bump_version BEFORE UPDATE ON purchase.customer
+    FOR EACH ROW EXECUTE FUNCTION purchase.bump_version();
+
+DROP TRIGGER IF EXISTS lot_bump_version ON purchase.lot;
+CREATE TRIGGER lot_bump_version BEFORE UPDATE ON purchase.lot
+    FOR EACH ROW EXECUTE FUNCTION purchase.bump_version();
@@ -0,0 +1,23 @@
+-- (sort key, primary key) indexes for the keyset pages of GET /api/lots and GET /api/customers, one per
+-- sortable column. A seek whose keys run the same way is read off the index from the cursor onwards, so
+-- page N costs what page 1 does; the primary key sorts are served by the primary key indexes.
+-- CONCURRENTLY keeps the tables writable while the indexes build, so run this with psql outside of a
+-- transaction block.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS lot_customer_code_seek_idx ON purchase.lot (customer_code, lot_name);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS lot_price_seek_idx ON purchase.lot (price, lot_name);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS lot_currency_code_seek_idx ON purchase.lot (currency_code, lot_name);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS lot_date_delivery_seek_idx ON purchase.lot (date_delivery, lot_name);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_seek_idx ON purchase.customer (customer_name, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_inn_seek_idx ON purchase.customer (customer_inn, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_kpp_seek_idx ON purchase.customer (customer_kpp, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_is_organization_seek_idx ON purchase.customer (is_organization, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_is_person_seek_idx ON purchase.customer (is_person, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_legal_address_seek_idx ON purchase.customer (customer_legal_address, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_postal_address_seek_idx ON purchase.customer (customer_postal_address, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_email_seek_idx ON purchase.customer (customer_email, customer_code);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_code_main_seek_idx ON purchase.customer (customer_code_main, customer_code);
+
+ANALYZE purchase.lot;
+ANALYZE purchase.customer;
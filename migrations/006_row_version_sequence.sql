@@ -0,0 +1,24 @@
+-- Row versions from one sequence, so an ETag names one state of one row for good. With versions counted
+-- per row from 0, a row deleted and created again (or inserted by an upsert) went back to "0", and a
+-- client's stale If-None-Match or If-Match for the old row matched the new one.
+-- Versions handed out before this migration to rows that are gone since cannot be known; the sequence
+-- starts past every version still stored.
+
+CREATE SEQUENCE IF NOT EXISTS purchase.row_version;
+
+SELECT setval('purchase.row_version', greatest(
+    (SELECT coalesce(max(version), 0) FROM purchase.customer),
+    (SELECT coalesce(max(version), 0) FROM purchase.lot),
+    1));
+
+ALTER TABLE purchase.customer ALTER COLUMN version SET DEFAULT nextval('purchase.row_version');
+ALTER TABLE purchase.lot ALTER COLUMN version SET DEFAULT nextval('purchase.row_version');
+
+CREATE OR REPLACE FUNCTION purchase.bump_version() RETURNS trigger AS $$
+BEGIN
+    IF NEW.version IS NOT DISTINCT FROM OLD.version THEN
+        NEW.version := nextval('purchase.row_version');
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;